@@ -2,36 +2,54 @@ package com.pepperkick.ems.batch.config;
 
 import com.pepperkick.ems.batch.dto.Employee;
 import com.pepperkick.ems.batch.mapper.EmployeeRowMapper;
+import com.pepperkick.ems.batch.partitioner.EmployeeIdRangePartitioner;
 import com.pepperkick.ems.batch.processor.EmployeeProcessor;
-import io.github.cdimascio.dotenv.Dotenv;
+import com.pepperkick.ems.batch.tasklet.MergeFilesTasklet;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.database.JdbcCursorItemReader;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
 import org.springframework.batch.item.file.FlatFileItemWriter;
 import org.springframework.batch.item.file.transform.PassThroughLineAggregator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class BatchConfiguration {
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
+    private final DataSource dataSource;
+
+    @Value("${batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${batch.grid-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int gridSize;
+
+    @Value("${batch.output:target/output/employee.txt}")
+    private String output;
 
     @Autowired
-    public BatchConfiguration(JobBuilderFactory jobBuilderFactory, StepBuilderFactory stepBuilderFactory) {
+    public BatchConfiguration(JobBuilderFactory jobBuilderFactory, StepBuilderFactory stepBuilderFactory, DataSource dataSource) {
         this.jobBuilderFactory = jobBuilderFactory;
         this.stepBuilderFactory = stepBuilderFactory;
+        this.dataSource = dataSource;
     }
 
     @Bean
@@ -40,56 +58,96 @@ public class BatchConfiguration {
             get("processJob").
             incrementer(new RunIdIncrementer()).
             flow(processStep()).
+            next(mergeStep()).
             end().
             build();
     }
 
+    // Splits the employees into ID ranges and processes each range on it's own thread
     @Bean
     public Step processStep() {
         return stepBuilderFactory.
             get("processStep").
-            <Employee, String> chunk(1).
-            reader(createItemReader()).
-            writer(createItemWriter()).
+            partitioner("processPartitionStep", new EmployeeIdRangePartitioner(dataSource, output)).
+            step(processPartitionStep()).
+            gridSize(gridSize).
+            taskExecutor(createTaskExecutor()).
+            build();
+    }
+
+    @Bean
+    public Step processPartitionStep() {
+        return stepBuilderFactory.
+            get("processPartitionStep").
+            <Employee, String> chunk(chunkSize).
+            reader(itemReader(null, null)).
+            writer(itemWriter(null)).
             processor(new EmployeeProcessor()).
             build();
     }
 
-    private ItemReader<Employee> createItemReader() {
-        JdbcCursorItemReader<Employee> itemReader = new JdbcCursorItemReader<>();
+    @Bean
+    public Step mergeStep() {
+        return stepBuilderFactory.
+            get("mergeStep").
+            tasklet(new MergeFilesTasklet(output)).
+            build();
+    }
+
+    // Each partition gets it's own reader over it's range of IDs, reading a chunk per page
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<Employee> itemReader(
+            @Value("#{stepExecutionContext['minId']}") Integer minId,
+            @Value("#{stepExecutionContext['maxId']}") Integer maxId
+    ) {
+        SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+        queryProvider.setDataSource(dataSource);
+        queryProvider.setSelectClause("SELECT ID, NAME, DESIGNATION, MANAGER");
+        queryProvider.setFromClause("FROM employee");
+        queryProvider.setWhereClause("WHERE ID BETWEEN :minId AND :maxId");
+        queryProvider.setSortKeys(Collections.singletonMap("ID", Order.ASCENDING));
+
+        JdbcPagingItemReader<Employee> itemReader = new JdbcPagingItemReader<>();
 
-        itemReader.setDataSource(getDataSource());
-        itemReader.setSql("SELECT * FROM employee ORDER BY id");
+        try {
+            itemReader.setQueryProvider(queryProvider.getObject());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create paging query for employees", e);
+        }
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("minId", minId);
+        parameters.put("maxId", maxId);
+
+        itemReader.setDataSource(dataSource);
+        itemReader.setParameterValues(parameters);
+        itemReader.setPageSize(chunkSize);
         itemReader.setRowMapper(new EmployeeRowMapper());
 
         return itemReader;
     }
 
-    private ItemWriter<String> createItemWriter() {
+    // Each partition writes to it's own file which are merged once all partitions are done
+    @Bean
+    @StepScope
+    public FlatFileItemWriter<String> itemWriter(@Value("#{stepExecutionContext['output']}") String partitionOutput) {
         FlatFileItemWriter<String> itemWriter = new FlatFileItemWriter<>();
         ResourceLoader resourceLoader = new DefaultResourceLoader();
 
-        itemWriter.setResource(resourceLoader.getResource("file:target/output/employee.txt"));
+        itemWriter.setResource(resourceLoader.getResource("file:" + partitionOutput));
         itemWriter.setLineAggregator(new PassThroughLineAggregator<>());
 
         return itemWriter;
     }
 
-    private DataSource getDataSource() {
-        Dotenv dotenv = Dotenv.load();
-
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://" +
-            dotenv.get("MYSQL_HOSTNAME", "localhost") +
-            ":" +
-            dotenv.get("MYSQL_PORT", "3306") +
-            "/" +
-            dotenv.get("MYSQL_DATABASE", "ems")
-        );
-        dataSource.setUsername(dotenv.get("MYSQL_USERNAME", "root"));
-        dataSource.setPassword(dotenv.get("MYSQL_PASSWORD", "root"));
-
-        return dataSource;
+    private TaskExecutor createTaskExecutor() {
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(gridSize);
+        taskExecutor.setMaxPoolSize(gridSize);
+        taskExecutor.setThreadNamePrefix("batch-partition-");
+        taskExecutor.initialize();
+
+        return taskExecutor;
     }
 }
@@ -0,0 +1,42 @@
+package com.pepperkick.ems.batch.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.cdimascio.dotenv.Dotenv;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfiguration {
+    // Single pool used by the readers, the chunk transactions and the Spring Batch job repository
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource(@Value("${batch.grid-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int gridSize) {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("ems-batch");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl("jdbc:mysql://" +
+            dotenv.get("MYSQL_HOSTNAME", "localhost") +
+            ":" +
+            dotenv.get("MYSQL_PORT", "3306") +
+            "/" +
+            dotenv.get("MYSQL_DATABASE", "ems")
+        );
+        config.setUsername(dotenv.get("MYSQL_USERNAME", "root"));
+        config.setPassword(dotenv.get("MYSQL_PASSWORD", "root"));
+
+        // Every partition holds a connection for it's chunk transaction, with a few more for the job repository and merge step
+        int poolSize = Integer.parseInt(dotenv.get("MYSQL_POOL_SIZE", String.valueOf(gridSize + 2)));
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+
+        // Expose pool usage (active, idle and waiting connections) as JMX MBeans
+        config.setRegisterMbeans(true);
+
+        return new HikariDataSource(config);
+    }
+}
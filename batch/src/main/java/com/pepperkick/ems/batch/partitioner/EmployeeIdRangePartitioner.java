@@ -0,0 +1,53 @@
+package com.pepperkick.ems.batch.partitioner;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Splits the employees into ranges of IDs of about equal width, one for each partition
+public class EmployeeIdRangePartitioner implements Partitioner {
+    private final JdbcTemplate jdbcTemplate;
+    private final String output;
+
+    public EmployeeIdRangePartitioner(DataSource dataSource, String output) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.output = output;
+    }
+
+    public static String getPartitionOutput(String output, int index) {
+        return output + ".part" + index;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, Integer> bounds = jdbcTemplate.queryForObject("SELECT MIN(ID) AS MIN_ID, MAX(ID) AS MAX_ID FROM employee", (rs, rowNum) -> {
+            Map<String, Integer> result = new HashMap<>();
+            result.put("min", rs.getInt("MIN_ID"));
+            result.put("max", rs.getInt("MAX_ID"));
+            return result;
+        });
+
+        int min = bounds.get("min");
+        int max = bounds.get("max");
+
+        // Each range covers at least one ID so an empty or small table does not create empty partitions
+        int width = Math.max(1, (max - min) / gridSize + 1);
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        int index = 0;
+        for (int start = min; index == 0 || start <= max; start += width, index++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putInt("minId", start);
+            context.putInt("maxId", start + width - 1);
+            context.putString("output", getPartitionOutput(output, index));
+
+            partitions.put("partition" + index, context);
+        }
+
+        return partitions;
+    }
+}
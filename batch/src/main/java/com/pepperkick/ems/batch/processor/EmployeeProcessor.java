@@ -10,7 +10,7 @@ public class EmployeeProcessor implements ItemProcessor<Employee, String> {
 
     @Override
     public String process(Employee employee) {
-        logger.info("Processing employee " + employee.getName() + " (" + employee.getId() + ")");
+        logger.debug("Processing employee {} ({})", employee.getName(), employee.getId());
         return employee.toString();
     }
 }
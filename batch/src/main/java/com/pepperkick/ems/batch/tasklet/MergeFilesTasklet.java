@@ -0,0 +1,52 @@
+package com.pepperkick.ems.batch.tasklet;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Joins the files written by the partitions of this job into the final output in ID order and removes them
+public class MergeFilesTasklet implements Tasklet {
+    private final String output;
+
+    public MergeFilesTasklet(String output) {
+        this.output = output;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        // Find the partitions of this job execution ordered by their ID ranges
+        List<ExecutionContext> partitions = chunkContext.getStepContext().getStepExecution().getJobExecution().getStepExecutions().stream().
+                map(StepExecution::getExecutionContext).
+                filter(context -> context.containsKey("output") && context.containsKey("minId")).
+                sorted(Comparator.comparingInt(context -> context.getInt("minId"))).
+                collect(Collectors.toList());
+
+        Path target = Paths.get(output);
+        if (target.getParent() != null)
+            Files.createDirectories(target.getParent());
+
+        try (OutputStream outputStream = Files.newOutputStream(target)) {
+            for (ExecutionContext partition : partitions) {
+                Path part = Paths.get(partition.getString("output"));
+                if (!Files.exists(part))
+                    continue;
+
+                Files.copy(part, outputStream);
+                Files.delete(part);
+            }
+        }
+
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -0,0 +1,31 @@
+package com.pepperkick.ems.benchmarks;
+
+import com.pepperkick.ems.server.entity.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+// Ordering of employees used by every sorted subordinate and colleague set
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeBenchmark {
+    @Benchmark
+    public int compare(OrganizationState state) {
+        Employee first = state.manager.getSubordinates().first();
+        return first.compare(first, state.manager.getSubordinates().last());
+    }
+
+    @Benchmark
+    public SortedSet<Employee> getColleagues(OrganizationState state) {
+        return state.manager.getSubordinates().first().getColleagues();
+    }
+
+    @Benchmark
+    public SortedSet<Employee> getManagerColleagues(OrganizationState state) {
+        return state.manager.getColleagues();
+    }
+}
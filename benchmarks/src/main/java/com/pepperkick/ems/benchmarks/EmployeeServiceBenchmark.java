@@ -0,0 +1,29 @@
+package com.pepperkick.ems.benchmarks;
+
+import com.pepperkick.ems.server.entity.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Service operations against the embedded database, each one rolled back after it is measured
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+    @Benchmark
+    public Employee create(OrganizationState state) {
+        return state.rollback(() -> state.employeeService.create("New Developer", "Developer", state.leadId, true));
+    }
+
+    @Benchmark
+    public Employee update(OrganizationState state) {
+        return state.rollback(() -> state.employeeService.update(state.employeeService.findById(state.developerId), "Renamed Developer", null, -1));
+    }
+
+    @Benchmark
+    public Employee replace(OrganizationState state) {
+        return state.rollback(() -> state.employeeService.replace(state.employeeService.findById(state.leadId), "Replaced Lead", "Lead", -1));
+    }
+}
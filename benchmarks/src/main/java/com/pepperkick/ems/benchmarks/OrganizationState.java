@@ -0,0 +1,137 @@
+package com.pepperkick.ems.benchmarks;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.requestbody.EmployeeRequestBulkItem;
+import com.pepperkick.ems.server.service.EmployeeService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Server application running on an embedded H2 database filled with a director, managers, leads and developers
+@State(Scope.Benchmark)
+public class OrganizationState {
+    public static final int MANAGERS = 10;
+    public static final int LEADS_PER_MANAGER = 10;
+    public static final int DEVELOPERS_PER_LEAD = 10;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+
+    EmployeeService employeeService;
+    int managerId;
+    int leadId;
+    int developerId;
+
+    // Manager loaded with it's subordinates and colleagues so it can be used outside of a transaction
+    Employee manager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(Application.class).
+            web(WebApplicationType.NONE).
+            run(
+                "--spring.profiles.active=development",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.database=h2",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN",
+                "--USE_IGNITE=false"
+            );
+
+        employeeService = context.getBean(EmployeeService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+
+        List<Integer> ids = new ArrayList<>();
+        employeeService.createAll(createOrganization()).forEach(employee -> ids.add(employee.getId()));
+
+        // Employees are returned in the order they were requested in
+        managerId = ids.get(1);
+        leadId = ids.get(2);
+        developerId = ids.get(3);
+
+        manager = transactionTemplate.execute(status -> {
+            Employee employee = employeeService.findById(managerId);
+            employee.getSubordinates().forEach(Employee::getColleagues);
+            employee.getColleagues();
+            return employee;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Run the operation in a transaction that is rolled back so every invocation sees the same organization
+    // Changes are flushed first, IDs come from the generator and updates stay in the persistence context until then
+    <T> T rollback(Supplier<T> operation) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            T result = operation.get();
+            entityManager.flush();
+            return result;
+        });
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private static List<EmployeeRequestBulkItem> createOrganization() {
+        List<EmployeeRequestBulkItem> items = new ArrayList<>();
+        items.add(createItem("director", "Director", null));
+
+        // Subordinates are added right after their manager so the first of each level form a chain
+        for (int m = 0; m < MANAGERS; m++) {
+            String managerRef = "manager" + m;
+            items.add(createItem(managerRef, "Manager", "director"));
+
+            for (int l = 0; l < LEADS_PER_MANAGER; l++) {
+                String leadRef = managerRef + "lead" + l;
+                items.add(createItem(leadRef, "Lead", managerRef));
+
+                for (int d = 0; d < DEVELOPERS_PER_LEAD; d++)
+                    items.add(createItem(leadRef + "developer" + d, "Developer", leadRef));
+            }
+        }
+
+        return items;
+    }
+
+    private static EmployeeRequestBulkItem createItem(String ref, String jobTitle, String managerRef) {
+        EmployeeRequestBulkItem item = new EmployeeRequestBulkItem();
+        item.setRef(ref);
+        item.setName(createName(ref));
+        item.setJobTitle(jobTitle);
+        item.setManagerRef(managerRef);
+
+        return item;
+    }
+
+    // Employee names can only have letters so the digits of the reference are replaced by letters
+    private static String createName(String ref) {
+        StringBuilder name = new StringBuilder();
+        for (char c : ref.toCharArray())
+            name.append(Character.isDigit(c) ? (char) ('a' + (c - '0')) : c);
+
+        return name.toString();
+    }
+}
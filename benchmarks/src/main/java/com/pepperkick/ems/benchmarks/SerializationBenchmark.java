@@ -0,0 +1,60 @@
+package com.pepperkick.ems.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pepperkick.ems.server.responsebody.EmployeeResponseBody;
+import com.pepperkick.ems.server.responsebody.EmployeeView;
+import com.pepperkick.ems.server.responsebody.EmployeeView.Field;
+import com.pepperkick.ems.server.responsebody.EmployeeView.Relation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON serialization of the response bodies returned by the employee routes, built once so only Jackson is measured
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private List<EmployeeResponseBody> page;
+    private List<EmployeeResponseBody> sparsePage;
+    private EmployeeResponseBody manager;
+
+    @Setup
+    public void setup(OrganizationState state) {
+        // Same mapper as the one used by the routes
+        objectMapper = state.getBean(ObjectMapper.class);
+
+        // GET /employees?limit=50, with every field and related employee
+        page = state.employeeService.findAll(null, PAGE_SIZE, EmployeeView.FULL).getEmployees();
+
+        // GET /employees?limit=50&fields=id,name&expand=
+        EmployeeView sparse = new EmployeeView(EnumSet.of(Field.ID, Field.NAME), EnumSet.noneOf(Relation.class));
+        sparsePage = state.employeeService.findAll(null, PAGE_SIZE, sparse).getEmployees();
+
+        // GET /employees/{id} of a manager with it's subordinates and colleagues
+        manager = state.employeeService.findResponseById(state.managerId, EmployeeView.FULL);
+    }
+
+    @Benchmark
+    public String serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(page);
+    }
+
+    @Benchmark
+    public String serializeSparsePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(sparsePage);
+    }
+
+    @Benchmark
+    public String serializeManager() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(manager);
+    }
+}
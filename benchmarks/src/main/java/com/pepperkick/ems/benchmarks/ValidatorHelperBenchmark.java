@@ -0,0 +1,52 @@
+package com.pepperkick.ems.benchmarks;
+
+import com.pepperkick.ems.server.util.ValidatorHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Name validation of every employee and designation request body, for both accepted and rejected names
+// The baseline compiles the pattern and throws on every call like the validator used to,
+// run with -prof gc to compare the allocations per validation
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorHelperBenchmark {
+    private String validName = "Captain America";
+    private String invalidName = "Captain America 2";
+
+    @Benchmark
+    public ValidatorHelper.NameError validateValidName() {
+        return ValidatorHelper.checkName(validName);
+    }
+
+    @Benchmark
+    public ValidatorHelper.NameError validateInvalidName() {
+        return ValidatorHelper.checkName(invalidName);
+    }
+
+    @Benchmark
+    public String baselineValidName() {
+        return baselineValidate(validName);
+    }
+
+    @Benchmark
+    public String baselineInvalidName() {
+        return baselineValidate(invalidName);
+    }
+
+    private static String baselineValidate(String name) {
+        try {
+            if (Pattern.compile("[^a-z ]", Pattern.CASE_INSENSITIVE).matcher(name).find())
+                throw new IllegalArgumentException("invalid");
+
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.pepperkick.ems.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+// Minimal JSON client over HttpURLConnection, connections are kept alive and reused by the JVM between requests
+public class HttpClient {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    public HttpClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public Response send(String method, String path, Object body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(30000);
+
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                objectMapper.writeValue(outputStream, body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+
+        // Body is always read fully so the connection can go back to the keep alive pool
+        InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        byte[] content = inputStream != null ? readFully(inputStream) : new byte[0];
+
+        return new Response(status, content);
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        try (InputStream stream = inputStream) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1)
+                outputStream.write(buffer, 0, read);
+
+            return outputStream.toByteArray();
+        }
+    }
+
+    public static class Response {
+        private final int status;
+        private final byte[] content;
+
+        Response(int status, byte[] content) {
+            this.status = status;
+            this.content = content;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+
+        public JsonNode getJson() throws IOException {
+            return objectMapper.readTree(content);
+        }
+
+        public String getText() {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.pepperkick.ems.loadtest;
+
+import java.util.Arrays;
+
+// Latencies of one endpoint, recorded by a single virtual user and merged once the run is over
+public class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+    private boolean sorted;
+
+    public void record(long nanos, boolean successful) {
+        if (size == latencies.length)
+            latencies = Arrays.copyOf(latencies, size * 2);
+
+        latencies[size++] = nanos;
+        sorted = false;
+
+        if (!successful)
+            errors++;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++)
+            record(other.latencies[i], true);
+
+        errors += other.errors;
+    }
+
+    public int getCount() {
+        return size;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    // Latency in milliseconds below which the given percent of requests completed
+    public double getPercentile(double percent) {
+        if (size == 0)
+            return 0;
+
+        if (!sorted) {
+            Arrays.sort(latencies, 0, size);
+            sorted = true;
+        }
+
+        int index = (int) Math.ceil(percent / 100 * size) - 1;
+        return latencies[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,131 @@
+package com.pepperkick.ems.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Replays a mix of employee and designation requests with many concurrent virtual users and reports latency per endpoint
+// Settings are read from system properties, for example -Dloadtest.users=100 -Dloadtest.duration=60
+public class LoadTest {
+    private static final String DEFAULT_MIX = "LIST_EMPLOYEES=40,GET_EMPLOYEE=30,CREATE_EMPLOYEE=10,UPDATE_EMPLOYEE=10,DELETE_EMPLOYEE=5,LIST_DESIGNATIONS=3,CREATE_DESIGNATION=1,DELETE_DESIGNATION=1";
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("loadtest.url", "http://localhost:8080/api/v1");
+        int users = Integer.parseInt(System.getProperty("loadtest.users", "50"));
+        int duration = Integer.parseInt(System.getProperty("loadtest.duration", "30"));
+        Map<Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+
+        // Keep a connection alive for every user instead of the default of 5
+        System.setProperty("http.maxConnections", String.valueOf(users));
+
+        HttpClient client = new HttpClient(url);
+        int managerId = prepareOrganization(client);
+        int designationId = findDesignationId(client, "Lead");
+        List<Integer> employeeIds = findEmployeeIds(client);
+
+        System.out.println("Running " + users + " virtual users for " + duration + " seconds against " + url);
+
+        long endTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(duration);
+        List<VirtualUser> virtualUsers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            VirtualUser user = new VirtualUser(client, mix, managerId, designationId, employeeIds, endTime);
+            virtualUsers.add(user);
+            executor.submit(user);
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(duration + 60, TimeUnit.SECONDS);
+
+        printReport(virtualUsers, duration);
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+
+        return mix;
+    }
+
+    // Create a director if the database is empty, then a manager and lead that every new employee reports to
+    private static int prepareOrganization(HttpClient client) throws IOException {
+        JsonNode first = client.send("GET", "/employees?limit=1", null).getJson();
+        int directorId;
+        if (first.size() == 0)
+            directorId = create(client, "Load Test Director", "Director", -1);
+        else
+            directorId = first.get(0).get("id").asInt();
+
+        int managerId = create(client, "Load Test Manager", "Manager", directorId);
+        return create(client, "Load Test Lead", "Lead", managerId);
+    }
+
+    private static int create(HttpClient client, String name, String jobTitle, int managerId) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("name", name);
+        body.put("jobTitle", jobTitle);
+        if (managerId != -1)
+            body.put("managerId", managerId);
+
+        HttpClient.Response response = client.send("POST", "/employees", body);
+        if (!response.isSuccessful())
+            throw new IllegalStateException("Failed to create " + jobTitle + ": " + response.getText());
+
+        return response.getJson().get("id").asInt();
+    }
+
+    private static int findDesignationId(HttpClient client, String title) throws IOException {
+        for (JsonNode designation : client.send("GET", "/designations", null).getJson())
+            if (designation.get("title").asText().equals(title))
+                return designation.get("id").asInt();
+
+        throw new IllegalStateException("Failed to find designation " + title);
+    }
+
+    private static List<Integer> findEmployeeIds(HttpClient client) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode employee : client.send("GET", "/employees?limit=1000", null).getJson())
+            ids.add(employee.get("id").asInt());
+
+        return ids;
+    }
+
+    private static void printReport(List<VirtualUser> virtualUsers, int duration) {
+        // Merge the latencies of every user per endpoint
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        LatencyRecorder total = new LatencyRecorder();
+        for (VirtualUser user : virtualUsers) {
+            for (Map.Entry<Operation, LatencyRecorder> entry : user.getRecorders().entrySet()) {
+                recorders.computeIfAbsent(entry.getKey(), key -> new LatencyRecorder()).merge(entry.getValue());
+                total.merge(entry.getValue());
+            }
+        }
+
+        String format = "%-24s %10s %8s %10s %10s %10s %10s%n";
+        System.out.println();
+        System.out.printf(format, "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms");
+        for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet())
+            if (entry.getValue().getCount() > 0)
+                printRow(format, entry.getKey().getEndpoint(), entry.getValue(), duration);
+        printRow(format, "Total", total, duration);
+    }
+
+    private static void printRow(String format, String name, LatencyRecorder recorder, int duration) {
+        System.out.printf(format,
+            name,
+            recorder.getCount(),
+            recorder.getErrors(),
+            String.format("%.1f", recorder.getCount() / (double) duration),
+            String.format("%.2f", recorder.getPercentile(50)),
+            String.format("%.2f", recorder.getPercentile(95)),
+            String.format("%.2f", recorder.getPercentile(99))
+        );
+    }
+}
@@ -0,0 +1,101 @@
+package com.pepperkick.ems.loadtest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Requests a virtual user can make, each reported as it's own endpoint
+public enum Operation {
+    LIST_EMPLOYEES("GET /employees") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            return user.getClient().send("GET", "/employees?limit=50", null);
+        }
+    },
+    GET_EMPLOYEE("GET /employees/{id}") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            return user.getClient().send("GET", "/employees/" + user.getAnyEmployeeId(), null);
+        }
+    },
+    CREATE_EMPLOYEE("POST /employees") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", user.createName());
+            body.put("jobTitle", "Developer");
+            body.put("managerId", user.getManagerId());
+
+            HttpClient.Response response = user.getClient().send("POST", "/employees", body);
+            if (response.isSuccessful())
+                user.addEmployeeId(response.getJson().get("id").asInt());
+
+            return response;
+        }
+    },
+    UPDATE_EMPLOYEE("PUT /employees/{id}") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", user.createName());
+
+            return user.getClient().send("PUT", "/employees/" + user.getOwnEmployeeId(), body);
+        }
+    },
+    DELETE_EMPLOYEE("DELETE /employees/{id}") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            return user.getClient().send("DELETE", "/employees/" + user.removeOwnEmployeeId(), null);
+        }
+    },
+    LIST_DESIGNATIONS("GET /designations") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            return user.getClient().send("GET", "/designations", null);
+        }
+    },
+    CREATE_DESIGNATION("POST /designations") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            // Placed at the level of an existing designation so the levels are not split again and again
+            Map<String, Object> body = new HashMap<>();
+            body.put("name", user.createTitle());
+            body.put("higher", user.getDesignationId());
+            body.put("equals", true);
+
+            HttpClient.Response response = user.getClient().send("POST", "/designations", body);
+            if (response.isSuccessful())
+                user.addDesignationId(response.getJson().get("id").asInt());
+
+            return response;
+        }
+    },
+    DELETE_DESIGNATION("DELETE /designations/{id}") {
+        @Override
+        HttpClient.Response execute(VirtualUser user) throws IOException {
+            return user.getClient().send("DELETE", "/designations/" + user.removeOwnDesignationId(), null);
+        }
+    };
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    // Updating and deleting only touch employees created by the same user, so users never conflict with each other
+    public boolean needsOwnEmployee() {
+        return this == UPDATE_EMPLOYEE || this == DELETE_EMPLOYEE;
+    }
+
+    // Deleting only touches designations created by the same user, which no employee is assigned to
+    public boolean needsOwnDesignation() {
+        return this == DELETE_DESIGNATION;
+    }
+
+    abstract HttpClient.Response execute(VirtualUser user) throws IOException;
+}
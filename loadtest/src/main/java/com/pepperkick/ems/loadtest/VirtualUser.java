@@ -0,0 +1,139 @@
+package com.pepperkick.ems.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends requests one after another until the run is over, picking each operation according to the mix
+public class VirtualUser implements Runnable {
+    // Designation titles must be unique, so they are counted across users and start with a prefix of the run
+    private static final String RUN_PREFIX = toLetters(System.currentTimeMillis() / 1000);
+    private static final AtomicInteger titleCounter = new AtomicInteger();
+
+    private final HttpClient client;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final int managerId;
+    private final int designationId;
+    private final List<Integer> sharedEmployeeIds;
+    private final long endTime;
+
+    private final List<Integer> ownEmployeeIds = new ArrayList<>();
+    private final List<Integer> ownDesignationIds = new ArrayList<>();
+    private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+    private int nameCounter;
+
+    public VirtualUser(HttpClient client, Map<Operation, Integer> mix, int managerId, int designationId, List<Integer> sharedEmployeeIds, long endTime) {
+        this.client = client;
+        this.mix = mix;
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.managerId = managerId;
+        this.designationId = designationId;
+        this.sharedEmployeeIds = sharedEmployeeIds;
+        this.endTime = endTime;
+
+        for (Operation operation : Operation.values())
+            recorders.put(operation, new LatencyRecorder());
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < endTime) {
+            Operation operation = nextOperation();
+
+            // Create an employee first if there is none of this user's own to update or delete
+            if (operation.needsOwnEmployee() && ownEmployeeIds.isEmpty())
+                operation = Operation.CREATE_EMPLOYEE;
+
+            // Same for designations to delete
+            if (operation.needsOwnDesignation() && ownDesignationIds.isEmpty())
+                operation = Operation.CREATE_DESIGNATION;
+
+            long start = System.nanoTime();
+            boolean successful;
+            try {
+                successful = operation.execute(this).isSuccessful();
+            } catch (Exception e) {
+                successful = false;
+            }
+
+            recorders.get(operation).record(System.nanoTime() - start, successful);
+        }
+    }
+
+    private Operation nextOperation() {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0)
+                return entry.getKey();
+        }
+
+        return Operation.LIST_EMPLOYEES;
+    }
+
+    public Map<Operation, LatencyRecorder> getRecorders() {
+        return recorders;
+    }
+
+    HttpClient getClient() {
+        return client;
+    }
+
+    int getManagerId() {
+        return managerId;
+    }
+
+    int getDesignationId() {
+        return designationId;
+    }
+
+    int getAnyEmployeeId() {
+        if (!ownEmployeeIds.isEmpty() && ThreadLocalRandom.current().nextBoolean())
+            return getOwnEmployeeId();
+
+        return sharedEmployeeIds.get(ThreadLocalRandom.current().nextInt(sharedEmployeeIds.size()));
+    }
+
+    int getOwnEmployeeId() {
+        return ownEmployeeIds.get(ThreadLocalRandom.current().nextInt(ownEmployeeIds.size()));
+    }
+
+    int removeOwnEmployeeId() {
+        return ownEmployeeIds.remove(ownEmployeeIds.size() - 1);
+    }
+
+    void addEmployeeId(int id) {
+        ownEmployeeIds.add(id);
+    }
+
+    int removeOwnDesignationId() {
+        return ownDesignationIds.remove(ownDesignationIds.size() - 1);
+    }
+
+    void addDesignationId(int id) {
+        ownDesignationIds.add(id);
+    }
+
+    String createName() {
+        return "Load Test " + toLetters(nameCounter++);
+    }
+
+    String createTitle() {
+        return "Load Test " + RUN_PREFIX + " " + toLetters(titleCounter.getAndIncrement());
+    }
+
+    // Names and titles can only have letters so counters are written with letters
+    private static String toLetters(long value) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('a' + value % 26));
+            value /= 26;
+        } while (value > 0);
+
+        return letters.toString();
+    }
+}
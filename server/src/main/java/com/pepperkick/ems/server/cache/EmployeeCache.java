@@ -0,0 +1,144 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.config.IgniteCacheConfiguration;
+import com.pepperkick.ems.server.entity.Designation;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.SqlFieldsQuery;
+import org.apache.ignite.cache.query.SqlQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.cache.Cache;
+import java.util.*;
+
+@Component
+public class EmployeeCache {
+    private final Logger logger = LoggerFactory.getLogger(EmployeeCache.class);
+    private final EmployeeRepository employeeRepository;
+    private final IgniteCache<Integer, EmployeeSummary> cache;
+
+    @Autowired
+    public EmployeeCache(EmployeeRepository employeeRepository, ObjectProvider<Ignite> igniteProvider) {
+        this.employeeRepository = employeeRepository;
+
+        // Ignite instance is only available if USE_IGNITE is enabled
+        Ignite ignite = igniteProvider.getIfAvailable();
+        this.cache = ignite != null ? ignite.cache(IgniteCacheConfiguration.EMPLOYEE_CACHE) : null;
+
+        // SQL queries only see cached entries so every employee is loaded into an empty cache
+        if (cache != null && cache.size() == 0)
+            cache.loadCache(null);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    // Find summary of employee of specific ID, reading it through the cache if enabled
+    public EmployeeSummary findById(int id) {
+        return cache != null ? cache.get(id) : employeeRepository.findSummaryById(id);
+    }
+
+    // Find summaries of employees of specific IDs
+    public List<EmployeeSummary> findByIds(Collection<Integer> ids) {
+        if (cache == null)
+            return employeeRepository.findSummariesByIds(ids);
+
+        return new ArrayList<>(cache.getAll(new HashSet<>(ids)).values());
+    }
+
+    // Find summaries of employees of specific IDs along with their direct subordinates
+    public List<EmployeeSummary> findWithSubordinatesByIds(Collection<Integer> ids) {
+        if (cache == null)
+            return employeeRepository.findSummariesWithSubordinatesByIds(ids);
+
+        // Employees can be subordinates of each other so they are collected by ID
+        Map<Integer, EmployeeSummary> summaries = new HashMap<>(cache.getAll(new HashSet<>(ids)));
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        SqlQuery<Integer, EmployeeSummary> query = new SqlQuery<Integer, EmployeeSummary>(EmployeeSummary.class, "managerId IN (" + placeholders + ")").
+                setArgs(ids.toArray());
+
+        for (Cache.Entry<Integer, EmployeeSummary> entry : cache.query(query))
+            summaries.put(entry.getKey(), entry.getValue());
+
+        return new ArrayList<>(summaries.values());
+    }
+
+    // Check if any employee has specific designation
+    public boolean existsByDesignation(Designation designation) {
+        if (cache == null)
+            return employeeRepository.existsByDesignation(designation);
+
+        SqlFieldsQuery query = new SqlFieldsQuery("SELECT id FROM EmployeeSummary WHERE designationId = ? LIMIT 1").
+                setArgs(designation.getId());
+
+        return !cache.query(query).getAll().isEmpty();
+    }
+
+    public long getCacheHits() {
+        return cache != null ? cache.metrics().getCacheHits() : 0;
+    }
+
+    public long getCacheMisses() {
+        return cache != null ? cache.metrics().getCacheMisses() : 0;
+    }
+
+    // Put the latest summaries of the given employees into the cache once the current transaction is committed
+    // Employees that no longer exist are removed from the cache
+    public void refresh(Collection<Integer> ids) {
+        if (cache == null || ids.isEmpty())
+            return;
+
+        Set<Integer> keys = new HashSet<>(ids);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    refreshNow(keys);
+                }
+            });
+        } else {
+            refreshNow(keys);
+        }
+    }
+
+    public void refresh(Integer... ids) {
+        refresh(Arrays.asList(ids));
+    }
+
+    private void refreshNow(Set<Integer> keys) {
+        // Database is already up to date so the cache store is skipped
+        IgniteCache<Integer, EmployeeSummary> direct = cache.withSkipStore();
+
+        try {
+            Map<Integer, EmployeeSummary> summaries = new HashMap<>();
+            employeeRepository.findSummariesByIds(keys).forEach(summary -> summaries.put(summary.getId(), summary));
+            direct.putAll(summaries);
+
+            keys.removeAll(summaries.keySet());
+            direct.removeAll(keys);
+        } catch (RuntimeException e) {
+            // The change is already committed so the error is not passed on, the employees are read through again instead
+            logger.error("Failed to refresh employees {} in the cache", keys, e);
+            evict(direct, keys);
+        }
+    }
+
+    private void evict(IgniteCache<Integer, EmployeeSummary> direct, Set<Integer> keys) {
+        try {
+            direct.removeAll(keys);
+        } catch (RuntimeException e) {
+            logger.error("Failed to evict employees {} from the cache", keys, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import org.apache.ignite.cache.store.CacheStoreAdapter;
+import org.apache.ignite.lang.IgniteBiInClosure;
+import org.apache.ignite.resources.SpringApplicationContextResource;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Pageable;
+
+import javax.cache.Cache;
+
+// Reads employee summaries into the Ignite cache from the database when they are missing
+// Writes are made by EmployeeService through JPA, which then puts the committed summaries into the cache
+public class EmployeeCacheStore extends CacheStoreAdapter<Integer, EmployeeSummary> {
+    @SpringApplicationContextResource
+    private transient ApplicationContext applicationContext;
+
+    private transient EmployeeRepository employeeRepository;
+
+    @Override
+    public EmployeeSummary load(Integer key) {
+        return getEmployeeRepository().findSummaryById(key);
+    }
+
+    @Override
+    public void loadCache(IgniteBiInClosure<Integer, EmployeeSummary> closure, Object... args) {
+        // Load every employee so the SQL queries on the cache see the whole organization
+        for (EmployeeSummary summary : getEmployeeRepository().findPage(Pageable.unpaged()))
+            closure.apply(summary.getId(), summary);
+    }
+
+    @Override
+    public void write(Cache.Entry<? extends Integer, ? extends EmployeeSummary> entry) {
+        // Database is written by EmployeeService before the cache is updated
+    }
+
+    @Override
+    public void delete(Object key) {
+        // Database is written by EmployeeService before the cache is updated
+    }
+
+    private EmployeeRepository getEmployeeRepository() {
+        // Repository is looked up on first use as the cache can start before the repositories are created
+        if (employeeRepository == null)
+            employeeRepository = applicationContext.getBean(EmployeeRepository.class);
+
+        return employeeRepository;
+    }
+}
@@ -0,0 +1,27 @@
+package com.pepperkick.ems.server.cache;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Tags responses of the read routes with the org version and answers 304 if the client already has it
+// Runs before the route so a 304 does not start a transaction or serialize anything
+public class EtagInterceptor extends HandlerInterceptorAdapter {
+    private final OrgVersion orgVersion;
+
+    public EtagInterceptor(OrgVersion orgVersion) {
+        this.orgVersion = orgVersion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) || !orgVersion.isShared())
+            return true;
+
+        // Version is read before the route reads any data, so a change in between only makes the ETag outdated
+        return !new ServletWebRequest(request, response).checkNotModified(orgVersion.getETag());
+    }
+}
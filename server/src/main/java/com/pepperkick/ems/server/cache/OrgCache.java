@@ -0,0 +1,182 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.repository.DesignationRepository;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.service.DesignationLadder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the latest snapshot of the org, reads take it without a lock or a query
+// Committed changes are copied into a new snapshot, which is then published along with the next org version
+@Component
+public class OrgCache {
+    private final Logger logger = LoggerFactory.getLogger(OrgCache.class);
+    private final EmployeeRepository employeeRepository;
+    private final DesignationRepository designationRepository;
+    private final OrgVersion orgVersion;
+    private final TransactionTemplate loadTemplate;
+    private final TransactionTemplate applyTemplate;
+    private final AtomicReference<OrgSnapshot> snapshot = new AtomicReference<>();
+
+    @Autowired
+    public OrgCache(EmployeeRepository employeeRepository, DesignationRepository designationRepository, OrgVersion orgVersion, PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.designationRepository = designationRepository;
+        this.orgVersion = orgVersion;
+
+        // Snapshots are always read from the primary in their own transaction
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Changes are read with the connection the committed transaction still holds, a second one could wait forever
+        // for a pool that is used up by other transactions waiting the same way, outside a transaction it is on the primary as well
+        this.applyTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Load the snapshot once the application is started, so reads inside of a transaction find it
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!orgVersion.isShared())
+            return;
+
+        try {
+            get();
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the org snapshot, it is loaded on the next read", e);
+        }
+    }
+
+    // Get the latest snapshot, or null if the current transaction has changes the snapshot does not have yet
+    // or if the org version is not shared, as changes of other instances would then never reach the snapshot
+    // The snapshot is loaded on first use and again if another node has changed the org
+    public OrgSnapshot get() {
+        if (!orgVersion.isShared() || TransactionSynchronizationManager.hasResource(this))
+            return null;
+
+        OrgSnapshot current = snapshot.get();
+        if (current != null && current.getVersion() >= orgVersion.get())
+            return current;
+
+        // A transaction already holds a connection, loading would need a second one so it reads from the database instead
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return null;
+
+        return load();
+    }
+
+    // Copy the latest summaries of the given employees into a new snapshot once the current transaction is committed
+    public void refreshEmployees(Collection<Integer> ids) {
+        refresh(ids, false);
+    }
+
+    public void refreshEmployees(Integer... ids) {
+        refresh(Arrays.asList(ids), false);
+    }
+
+    // Copy the latest designations into a new snapshot once the current transaction is committed
+    public void refreshDesignations() {
+        refresh(Collections.emptyList(), true);
+    }
+
+    private void refresh(Collection<Integer> ids, boolean designations) {
+        if (!orgVersion.isShared())
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(new HashSet<>(ids), designations);
+            return;
+        }
+
+        // Changes of a transaction are collected and applied together, until then it's reads skip the snapshot
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes pending = new Changes();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    apply(pending.ids, pending.designations);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OrgCache.this);
+                }
+            });
+            changes = pending;
+        }
+
+        changes.ids.addAll(ids);
+        changes.designations |= designations;
+    }
+
+    // Loading and applying share a lock so changes are applied in the order they were read from the database
+    private synchronized OrgSnapshot load() {
+        OrgSnapshot current = snapshot.get();
+        long version = orgVersion.get();
+
+        if (current == null || current.getVersion() < version) {
+            current = loadTemplate.execute(status -> new OrgSnapshot(
+                version,
+                new DesignationLadder(designationRepository.findAllByOrderByLevelAsc()),
+                employeeRepository.findPage(Pageable.unpaged())
+            ));
+            snapshot.set(current);
+        }
+
+        return current;
+    }
+
+    private synchronized void apply(Set<Integer> ids, boolean designations) {
+        OrgSnapshot current = snapshot.get();
+
+        try {
+            // A snapshot that is missing changes of another node is loaded again by the next read
+            if (current == null || current.getVersion() < orgVersion.get()) {
+                snapshot.set(null);
+                return;
+            }
+
+            // The snapshot is published before the version is changed so the new version is never served with old data
+            long version = current.getVersion() + 1;
+            snapshot.set(applyTemplate.execute(status -> current.update(
+                version,
+                designations ? new DesignationLadder(designationRepository.findAllByOrderByLevelAsc()) : current.getLadder(),
+                ids,
+                ids.isEmpty() ? Collections.emptyList() : employeeRepository.findSummariesByIds(ids)
+            )));
+        } catch (RuntimeException e) {
+            // The change is already committed so the error is not passed on, the next read loads everything again
+            logger.error("Failed to update the org snapshot, it is loaded again on the next read", e);
+            snapshot.set(null);
+        } finally {
+            incrementVersion();
+        }
+    }
+
+    private void incrementVersion() {
+        try {
+            orgVersion.increment();
+        } catch (RuntimeException e) {
+            logger.error("Failed to change the org version", e);
+        }
+    }
+
+    private static class Changes {
+        private final Set<Integer> ids = new HashSet<>();
+        private boolean designations;
+    }
+}
@@ -0,0 +1,153 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import com.pepperkick.ems.server.service.DesignationLadder;
+
+import java.util.*;
+
+// Immutable view of all employees and designations at a version of the org
+// Employees and the subordinates of each employee are kept in designation level, name and ID order
+public final class OrgSnapshot {
+    private final long version;
+    private final DesignationLadder ladder;
+    private final List<EmployeeSummary> employees;
+    private final Map<Integer, EmployeeSummary> byId;
+    private final Map<Integer, List<EmployeeSummary>> byManagerId;
+
+    OrgSnapshot(long version, DesignationLadder ladder, Collection<EmployeeSummary> employees) {
+        List<EmployeeSummary> sorted = new ArrayList<>(employees);
+        Collections.sort(sorted);
+
+        Map<Integer, EmployeeSummary> byId = new HashMap<>();
+        Map<Integer, List<EmployeeSummary>> byManagerId = new HashMap<>();
+        for (EmployeeSummary summary : sorted) {
+            byId.put(summary.getId(), summary);
+            if (summary.getManagerId() != null)
+                byManagerId.computeIfAbsent(summary.getManagerId(), key -> new ArrayList<>()).add(summary);
+        }
+        byManagerId.replaceAll((key, subordinates) -> Collections.unmodifiableList(subordinates));
+
+        this.version = version;
+        this.ladder = ladder;
+        this.employees = Collections.unmodifiableList(sorted);
+        this.byId = byId;
+        this.byManagerId = byManagerId;
+    }
+
+    private OrgSnapshot(long version, DesignationLadder ladder, List<EmployeeSummary> employees, Map<Integer, EmployeeSummary> byId, Map<Integer, List<EmployeeSummary>> byManagerId) {
+        this.version = version;
+        this.ladder = ladder;
+        this.employees = employees;
+        this.byId = byId;
+        this.byManagerId = byManagerId;
+    }
+
+    // Copy the snapshot with the given designations and the latest summaries of the given employees
+    // Employees that are not found in the summaries are removed, subordinate lists that are not changed are shared with this snapshot
+    OrgSnapshot update(long version, DesignationLadder ladder, Collection<Integer> ids, Collection<EmployeeSummary> summaries) {
+        if (ids.isEmpty())
+            return new OrgSnapshot(version, ladder, employees, byId, byManagerId);
+
+        List<EmployeeSummary> employees = new ArrayList<>(this.employees);
+        Map<Integer, EmployeeSummary> byId = new HashMap<>(this.byId);
+        Map<Integer, List<EmployeeSummary>> byManagerId = new HashMap<>(this.byManagerId);
+        Set<Integer> changedManagerIds = new HashSet<>();
+
+        // Remove the old summaries from the lists they are in
+        for (Integer id : ids) {
+            EmployeeSummary old = byId.remove(id);
+            if (old == null)
+                continue;
+
+            employees.remove(Collections.binarySearch(employees, old));
+            if (old.getManagerId() != null)
+                copySubordinates(byManagerId, changedManagerIds, old.getManagerId()).remove(old);
+        }
+
+        // Insert the new summaries at their place in the lists
+        for (EmployeeSummary summary : summaries) {
+            byId.put(summary.getId(), summary);
+            insert(employees, summary);
+            if (summary.getManagerId() != null)
+                insert(copySubordinates(byManagerId, changedManagerIds, summary.getManagerId()), summary);
+        }
+
+        for (Integer managerId : changedManagerIds) {
+            List<EmployeeSummary> subordinates = byManagerId.get(managerId);
+            if (subordinates.isEmpty())
+                byManagerId.remove(managerId);
+            else
+                byManagerId.put(managerId, Collections.unmodifiableList(subordinates));
+        }
+
+        return new OrgSnapshot(version, ladder, Collections.unmodifiableList(employees), byId, byManagerId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public DesignationLadder getLadder() {
+        return ladder;
+    }
+
+    public EmployeeSummary findById(int id) {
+        return byId.get(id);
+    }
+
+    public List<EmployeeSummary> findSubordinates(int id) {
+        return byManagerId.getOrDefault(id, Collections.emptyList());
+    }
+
+    // Find a page of employees that come after the given employee, or from the first employee if none is given
+    // The employee only needs it's designation level, sort name and ID, it does not have to be in the snapshot
+    public List<EmployeeSummary> findPage(EmployeeSummary after, int limit) {
+        int index = after != null ? Collections.binarySearch(employees, after) : -1;
+        int from = index >= 0 ? index + 1 : -index - 1;
+        int to = limit != -1 ? Math.min(from + limit, employees.size()) : employees.size();
+
+        return employees.subList(from, to);
+    }
+
+    // Find all employees under the employee of specific ID
+    public List<EmployeeSummary> findDescendants(int id) {
+        List<EmployeeSummary> descendants = new ArrayList<>();
+        Deque<Integer> managerIds = new ArrayDeque<>();
+        managerIds.add(id);
+
+        while (!managerIds.isEmpty()) {
+            for (EmployeeSummary subordinate : findSubordinates(managerIds.poll())) {
+                descendants.add(subordinate);
+                managerIds.add(subordinate.getId());
+            }
+        }
+
+        Collections.sort(descendants);
+        return descendants;
+    }
+
+    // Find the managers above the employee of specific ID, starting from the direct manager
+    public List<EmployeeSummary> findChainOfCommand(int id) {
+        List<EmployeeSummary> chain = new ArrayList<>();
+        EmployeeSummary employee = byId.get(id);
+
+        while (employee != null && employee.getManagerId() != null) {
+            employee = byId.get(employee.getManagerId());
+            chain.add(employee);
+        }
+
+        return chain;
+    }
+
+    private static List<EmployeeSummary> copySubordinates(Map<Integer, List<EmployeeSummary>> byManagerId, Set<Integer> changedManagerIds, Integer managerId) {
+        if (changedManagerIds.add(managerId))
+            byManagerId.put(managerId, new ArrayList<>(byManagerId.getOrDefault(managerId, Collections.emptyList())));
+
+        return byManagerId.get(managerId);
+    }
+
+    private static void insert(List<EmployeeSummary> summaries, EmployeeSummary summary) {
+        int index = Collections.binarySearch(summaries, summary);
+        summaries.add(index < 0 ? -index - 1 : index, summary);
+    }
+}
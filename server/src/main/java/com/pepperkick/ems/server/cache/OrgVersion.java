@@ -0,0 +1,59 @@
+package com.pepperkick.ems.server.cache;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteAtomicLong;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Counter of changes to employees and designations, used as the ETag of the read routes
+// Starts from the current time so versions handed out before a restart are not handed out again
+// Only shared when Ignite is enabled, otherwise every instance counts on it's own and the version is only used by a single instance
+@Component
+public class OrgVersion {
+    public static final String ORG_VERSION = "OrgVersion";
+
+    private final LongSupplier current;
+    private final LongSupplier next;
+    private final boolean shared;
+
+    @Autowired
+    public OrgVersion(ObjectProvider<Ignite> igniteProvider, @Value("${ems.org-snapshot.single-instance:false}") boolean singleInstance) {
+        // Ignite instance is only available if USE_IGNITE is enabled, the counter is then shared by the cluster
+        Ignite ignite = igniteProvider.getIfAvailable();
+        shared = ignite != null || singleInstance;
+        if (ignite != null) {
+            IgniteAtomicLong version = ignite.atomicLong(ORG_VERSION, System.currentTimeMillis(), true);
+            current = version::get;
+            next = version::incrementAndGet;
+        } else {
+            AtomicLong version = new AtomicLong(System.currentTimeMillis());
+            current = version::get;
+            next = version::incrementAndGet;
+        }
+    }
+
+    public long get() {
+        return current.getAsLong();
+    }
+
+    // Whether every instance sees the same version, the snapshot and the ETags are not used otherwise
+    // as an instance would not see changes of the others and could hand out versions another one already did
+    public boolean isShared() {
+        return shared;
+    }
+
+    public String getETag() {
+        return "\"" + get() + "\"";
+    }
+
+    // Only changed by OrgCache once a change is committed and it's snapshot is published
+    // so a request cannot get the new version along with data from before the change
+    void increment() {
+        next.getAsLong();
+    }
+}
@@ -0,0 +1,87 @@
+package com.pepperkick.ems.server.config;
+
+import com.pepperkick.ems.server.datasource.ReplicaMonitor;
+import com.pepperkick.ems.server.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+// Splits reads and writes between the primary and a replica when a replica URL is set
+// Without it the single data source of Spring Boot is used
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "ems.datasource.replica", name = "url")
+public class DataSourceConfiguration {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+
+        return dataSource;
+    }
+
+    // The replica uses the credentials of the primary unless set
+    @Bean
+    public HikariDataSource replicaDataSource(
+        DataSourceProperties properties,
+        @Value("${ems.datasource.replica.url}") String url,
+        @Value("${ems.datasource.replica.username:${spring.datasource.username:}}") String username,
+        @Value("${ems.datasource.replica.password:${spring.datasource.password:}}") String password,
+        @Value("${ems.datasource.replica.maximum-pool-size:10}") int maximumPoolSize
+    ) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(
+        @Qualifier("replicaDataSource") DataSource replica,
+        MeterRegistry meterRegistry,
+        @Value("${ems.datasource.replica.lag-query:}") String lagQuery,
+        @Value("${ems.datasource.replica.max-lag-seconds:5}") long maxLagSeconds
+    ) {
+        ReplicaMonitor replicaMonitor = new ReplicaMonitor(replica, lagQuery, maxLagSeconds);
+
+        Gauge.builder("ems.datasource.replica.available", replicaMonitor, monitor -> monitor.isAvailable() ? 1 : 0).
+            description("Whether read-only transactions are sent to the replica").
+            register(meterRegistry);
+        Gauge.builder("ems.datasource.replica.lag", replicaMonitor, ReplicaMonitor::getLagSeconds).
+            description("Seconds the replica is behind the primary").
+            baseUnit("seconds").
+            register(meterRegistry);
+
+        return replicaMonitor;
+    }
+
+    // Connections are fetched lazily so the routing sees the read-only flag of the transaction
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primary,
+        @Qualifier("replicaDataSource") DataSource replica,
+        ReplicaMonitor replicaMonitor
+    ) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, replicaMonitor));
+    }
+}
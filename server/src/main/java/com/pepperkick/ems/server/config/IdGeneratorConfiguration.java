@@ -0,0 +1,16 @@
+package com.pepperkick.ems.server.config;
+
+import com.pepperkick.ems.server.repository.IdGeneratorRepository;
+import com.pepperkick.ems.server.repository.IdTableGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfiguration {
+    // Hands the repository to the ID generators of the entities, which are created by Hibernate
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorCustomizer(IdGeneratorRepository idGeneratorRepository) {
+        return properties -> properties.put(IdTableGenerator.REPOSITORY, idGeneratorRepository);
+    }
+}
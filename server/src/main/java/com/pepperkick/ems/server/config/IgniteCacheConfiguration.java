@@ -1,30 +1,42 @@
 package com.pepperkick.ems.server.config;
 
-import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.cache.EmployeeCacheStore;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.apache.ignite.Ignite;
-import org.apache.ignite.Ignition;
+import org.apache.ignite.IgniteSpring;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.multicast.TcpDiscoveryMulticastIpFinder;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+import javax.cache.configuration.FactoryBuilder;
 import java.util.ArrayList;
 
 @Configuration
 public class IgniteCacheConfiguration {
-    @Value("spring.profiles.active")
-    private String profile;
+    public static final String EMPLOYEE_CACHE = "EmployeeCache";
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+
+    @Autowired
+    public IgniteCacheConfiguration(ApplicationContext applicationContext, Environment environment) {
+        this.applicationContext = applicationContext;
+        this.environment = environment;
+    }
 
     @Bean
     public Ignite igniteInstance() {
         try {
-            Dotenv env = Dotenv.load();
-            if (env.get("USE_IGNITE", "false").equalsIgnoreCase("true")) {
-                boolean isClient = env.get("IGNITE_CLIENT", "false").equalsIgnoreCase("true");
+            Dotenv env = Dotenv.configure().ignoreIfMissing().load();
+            if (getSetting(env, "USE_IGNITE", "false").equalsIgnoreCase("true")) {
+                boolean isClient = getSetting(env, "IGNITE_CLIENT", "false").equalsIgnoreCase("true");
                 IgniteConfiguration config = new IgniteConfiguration();
 
                 ArrayList<String> addresses = new ArrayList<>();
@@ -33,7 +45,7 @@ public class IgniteCacheConfiguration {
 
                 if (isClient) {
                     config.setClientMode(true);
-                    String address = env.get("IGNITE_HOST", "localhost") + ":" + env.get("IGNITE_PORT", "47500");
+                    String address = getSetting(env, "IGNITE_HOST", "localhost") + ":" + getSetting(env, "IGNITE_PORT", "47500");
                     addresses.add(address);
                 } else {
                     config.setClientMode(false);
@@ -44,12 +56,17 @@ public class IgniteCacheConfiguration {
                 discoSpi.setIpFinder(ipFinder);
                 config.setDiscoverySpi(discoSpi);
 
-                CacheConfiguration employeeCache = new CacheConfiguration<>("EmployeeCache").
-                        setIndexedTypes(Integer.class, Employee.class);
+                // Employee summaries are read through from the database when missing in the cache
+                CacheConfiguration<Integer, EmployeeSummary> employeeCache = new CacheConfiguration<Integer, EmployeeSummary>(EMPLOYEE_CACHE).
+                        setIndexedTypes(Integer.class, EmployeeSummary.class).
+                        setCacheStoreFactory(FactoryBuilder.factoryOf(EmployeeCacheStore.class)).
+                        setReadThrough(true).
+                        setStatisticsEnabled(true);
 
                 config.setCacheConfiguration(employeeCache);
 
-                return Ignition.start(config);
+                // Started with the application context so the cache store can use the repositories
+                return IgniteSpring.start(config, applicationContext);
             }
         } catch (Exception e) {
             return null;
@@ -57,4 +74,9 @@ public class IgniteCacheConfiguration {
 
         return null;
     }
+
+    // Spring properties take priority over the environment file
+    private String getSetting(Dotenv env, String key, String defaultValue) {
+        return environment.getProperty(key, env.get(key, defaultValue));
+    }
 }
@@ -0,0 +1,34 @@
+package com.pepperkick.ems.server.config;
+
+import com.pepperkick.ems.server.metrics.SqlProfilerFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+    // Times service methods annotated with @Timed
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    // Profiles the SQL work of the API routes
+    @Bean
+    public FilterRegistrationBean<SqlProfilerFilter> sqlProfilerFilter(
+        MeterRegistry meterRegistry,
+        @Value("${ems.sql-profiler.enabled:false}") boolean enabled,
+        @Value("${ems.sql-profiler.debug:false}") boolean debug,
+        @Value("${ems.sql-profiler.slow-request-ms:500}") long slowRequestMillis
+    ) {
+        FilterRegistrationBean<SqlProfilerFilter> registration = new FilterRegistrationBean<>(
+            new SqlProfilerFilter(meterRegistry, enabled, debug, slowRequestMillis)
+        );
+        registration.addUrlPatterns("/api/*");
+
+        return registration;
+    }
+}
@@ -0,0 +1,27 @@
+package com.pepperkick.ems.server.config;
+
+import com.pepperkick.ems.server.cache.EtagInterceptor;
+import com.pepperkick.ems.server.cache.OrgVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+    private final OrgVersion orgVersion;
+
+    @Autowired
+    public WebConfiguration(OrgVersion orgVersion) {
+        this.orgVersion = orgVersion;
+    }
+
+    // Conditional GET of employees and designations
+    // Export is left out as it is read from the replica, which can still be behind the version of the primary
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EtagInterceptor(orgVersion)).
+            addPathPatterns("/api/v1/employees", "/api/v1/employees/**", "/api/v1/designations", "/api/v1/designations/**").
+            excludePathPatterns("/api/v1/employees/export");
+    }
+}
@@ -0,0 +1,86 @@
+package com.pepperkick.ems.server.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+// Checks if the replica can be reached and how far it is behind the primary
+// The replica is only used once a check has passed, so startup work always reads from the primary
+public class ReplicaMonitor {
+    // Column of the lag in seconds returned by "SHOW SLAVE STATUS" on MySQL
+    private static final String LAG_COLUMN = "Seconds_Behind_Master";
+    private static final int VALID_TIMEOUT_SECONDS = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(ReplicaMonitor.class);
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private volatile boolean available = false;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaMonitor(DataSource replica, String lagQuery, long maxLagSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(initialDelayString = "${ems.datasource.replica.check-interval-ms:5000}", fixedDelayString = "${ems.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        Double lag;
+        try {
+            lag = lagQuery.isEmpty() ? checkConnection() : jdbcTemplate.query(lagQuery, (ResultSetExtractor<Double>) this::readLag);
+        } catch (DataAccessException e) {
+            logger.debug("Replica check failed", e);
+            lag = null;
+        }
+
+        // A missing lag means the replica cannot be reached or is not replicating
+        boolean wasAvailable = available;
+        lagSeconds = lag != null ? lag : Double.NaN;
+        available = lag != null && lag <= maxLagSeconds;
+
+        if (wasAvailable && !available)
+            logger.warn("Replica is unavailable with lag of {} seconds, reading from primary", lagSeconds);
+        else if (!wasAvailable && available)
+            logger.info("Replica is available with lag of {} seconds", lagSeconds);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    // Without a lag query the replica is only checked to be reachable
+    private Double checkConnection() {
+        Boolean valid = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isValid(VALID_TIMEOUT_SECONDS));
+        return Boolean.TRUE.equals(valid) ? 0.0 : null;
+    }
+
+    private Double readLag(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next())
+            return null;
+
+        // Use the MySQL lag column if present, otherwise the first column
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int column = 1;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (LAG_COLUMN.equalsIgnoreCase(metaData.getColumnLabel(i)))
+                column = i;
+        }
+
+        double lag = resultSet.getDouble(column);
+        return resultSet.wasNull() ? null : lag;
+    }
+}
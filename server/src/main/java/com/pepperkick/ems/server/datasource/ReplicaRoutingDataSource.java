@@ -0,0 +1,37 @@
+package com.pepperkick.ems.server.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sends connections of read-only transactions to the replica while it is in sync with the primary
+// Must be wrapped in a LazyConnectionDataSourceProxy, as the transaction is only marked read-only after it's connection is requested
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaMonitor replicaMonitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaMonitor replicaMonitor) {
+        this.replicaMonitor = replicaMonitor;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Target.PRIMARY, primary);
+        targets.put(Target.REPLICA, replica);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Work outside of a transaction, like schema updates and startup scripts, always goes to the primary
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaMonitor.isAvailable())
+            return Target.REPLICA;
+
+        return Target.PRIMARY;
+    }
+}
@@ -1,15 +1,27 @@
 package com.pepperkick.ems.server.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
 @Entity
 @Table(name = "DESIGNATION")
 public class Designation implements Comparable<Designation> {
+    // IDs are allocated in blocks from the ID_GENERATOR table so inserts can be sent in JDBC batches
     @Id
     @Column(name = "ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "designation_id")
+    @GenericGenerator(name = "designation_id", strategy = "com.pepperkick.ems.server.repository.IdTableGenerator", parameters = {
+        @Parameter(name = "table_name", value = "ID_GENERATOR"),
+        @Parameter(name = "segment_column_name", value = "SEQUENCE_NAME"),
+        @Parameter(name = "value_column_name", value = "NEXT_VAL"),
+        @Parameter(name = "segment_value", value = "DESIGNATION"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     @ApiModelProperty(value = "Designation's ID", example = "1", position = 1)
     private Integer id;
 
@@ -21,6 +33,11 @@ public class Designation implements Comparable<Designation> {
     @ApiModelProperty(value = "Designation's Level", example = "1.0", position = 3)
     private float level;
 
+    @Version
+    @Column(name = "VERSION", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    @JsonIgnore
+    private long version;
+
     public Integer getId() {
         return id;
     }
@@ -45,6 +62,10 @@ public class Designation implements Comparable<Designation> {
         this.level = level;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public float compareByLevel(Designation o) { return this.getLevel() - o.getLevel(); }
 
     @Override
@@ -6,23 +6,40 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import org.hibernate.annotations.*;
+import org.hibernate.annotations.Parameter;
 import org.springframework.lang.Nullable;
 
 import javax.persistence.*;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
 import java.util.Comparator;
+import java.util.Locale;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 @Entity
-@Table(name = "EMPLOYEE")
+@Table(name = "EMPLOYEE", indexes = {
+    @Index(name = "IDX_EMPLOYEE_PATH", columnList = "PATH"),
+    @Index(name = "IDX_EMPLOYEE_LEVEL_SORT_NAME_ID", columnList = "LEVEL, SORT_NAME, ID"),
+    @Index(name = "IDX_EMPLOYEE_MANAGER_LEVEL", columnList = "MANAGER, LEVEL")
+})
 @ApiModel
 public class Employee implements Comparable<Employee>, Comparator<Employee> {
+    // IDs are allocated in blocks from the ID_GENERATOR table so inserts can be sent in JDBC batches
     @Id
     @Column(name = "ID")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "employee_id")
+    @GenericGenerator(name = "employee_id", strategy = "com.pepperkick.ems.server.repository.IdTableGenerator", parameters = {
+        @Parameter(name = "table_name", value = "ID_GENERATOR"),
+        @Parameter(name = "segment_column_name", value = "SEQUENCE_NAME"),
+        @Parameter(name = "value_column_name", value = "NEXT_VAL"),
+        @Parameter(name = "segment_value", value = "EMPLOYEE"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     @ApiModelProperty(notes = "Employee's ID", position = 1)
     private Integer id;
 
@@ -31,6 +48,11 @@ public class Employee implements Comparable<Employee>, Comparator<Employee> {
     @ApiModelProperty(notes = "Employee's Name", position = 2, required = true)
     private String name;
 
+    // Copy of the name that employees are sorted by, it orders the same in Java and with any collation of the database
+    @Column(name = "SORT_NAME", length = 40)
+    @JsonIgnore
+    private String sortName;
+
     @Transient
     @ApiModelProperty(notes = "Employee's Job Title", example = "Director", position = 3, required = true)
     private String jobTitle;
@@ -61,6 +83,27 @@ public class Employee implements Comparable<Employee>, Comparator<Employee> {
     @JoinColumn(name = "DESIGNATION")
     private Designation designation;
 
+    // Copy of the designation's level so employees can be sorted and filtered by level without the designation
+    @Column(name = "LEVEL")
+    @JsonIgnore
+    private Float level;
+
+    // IDs of the employee's chain of command down to the employee itself, like /1/4/8/
+    @Column(name = "PATH")
+    @JsonIgnore
+    private String path;
+
+    // Only set for the director, the unique constraint lets the database reject a second director
+    @Column(name = "DIRECTOR", unique = true)
+    @JsonIgnore
+    private Boolean director;
+
+    // Concurrent changes of the same employee fail on commit instead of overwriting each other
+    @Version
+    @Column(name = "VERSION", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    @JsonIgnore
+    private long version;
+
     public Integer getId() {
         return id;
     }
@@ -75,6 +118,16 @@ public class Employee implements Comparable<Employee>, Comparator<Employee> {
 
     public void setName(String name) {
         this.name = name;
+        this.sortName = name != null ? toSortName(name) : null;
+    }
+
+    public String getSortName() {
+        return sortName != null ? sortName : toSortName(name);
+    }
+
+    // Names only have latin letters and spaces, in lower case without the outer spaces they compare the same everywhere
+    public static String toSortName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
     }
 
     public Designation getDesignation() {
@@ -83,6 +136,31 @@ public class Employee implements Comparable<Employee>, Comparator<Employee> {
 
     public void setDesignation(Designation designation) {
         this.designation = designation;
+        this.level = designation != null ? designation.getLevel() : null;
+    }
+
+    public float getLevel() {
+        return level != null ? level : designation.getLevel();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public boolean isDirector() {
+        return director != null;
+    }
+
+    public void setDirector(boolean director) {
+        this.director = director ? true : null;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
     public String getJobTitle() {
@@ -122,9 +200,9 @@ public class Employee implements Comparable<Employee>, Comparator<Employee> {
 
     @Override
     public int compare(Employee o1, Employee o2) {
-        float levelDiff = o1.getDesignation().getLevel() - o2.getDesignation().getLevel();
+        float levelDiff = o1.getLevel() - o2.getLevel();
         if (levelDiff == 0) {
-            int nameDiff = o1.getName().compareTo(o2.getName());
+            int nameDiff = o1.getSortName().compareTo(o2.getSortName());
             if (nameDiff == 0) {
                 return o1.getId() - o2.getId();
             } else {
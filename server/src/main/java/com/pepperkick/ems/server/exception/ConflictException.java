@@ -0,0 +1,7 @@
+package com.pepperkick.ems.server.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String s) {
+        super(s);
+    }
+}
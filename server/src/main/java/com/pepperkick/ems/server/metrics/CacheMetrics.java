@@ -0,0 +1,46 @@
+package com.pepperkick.ems.server.metrics;
+
+import com.pepperkick.ems.server.cache.EmployeeCache;
+import com.pepperkick.ems.server.service.DesignationService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+// Hits and misses of the designation ladder and the Ignite employee cache
+// Services are looked up when the counters are read as meter binders are created before the database is initialized
+@Component
+public class CacheMetrics implements MeterBinder {
+    public static final String CACHE_METRIC = "ems.cache.gets";
+
+    private final ObjectProvider<DesignationService> designationService;
+    private final ObjectProvider<EmployeeCache> employeeCache;
+
+    @Autowired
+    public CacheMetrics(ObjectProvider<DesignationService> designationService, ObjectProvider<EmployeeCache> employeeCache) {
+        this.designationService = designationService;
+        this.employeeCache = employeeCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "designations", "hit", metrics -> metrics.designationService.getObject().getCacheHits());
+        bind(registry, "designations", "miss", metrics -> metrics.designationService.getObject().getCacheMisses());
+
+        // Ignite keeps statistics of the employee cache only when it is enabled, otherwise these stay at zero
+        bind(registry, "employees", "hit", metrics -> metrics.employeeCache.getObject().getCacheHits());
+        bind(registry, "employees", "miss", metrics -> metrics.employeeCache.getObject().getCacheMisses());
+    }
+
+    private void bind(MeterRegistry registry, String cache, String result, ToDoubleFunction<CacheMetrics> function) {
+        FunctionCounter.builder(CACHE_METRIC, this, function).
+            description("Number of cache lookups").
+            tag("cache", cache).
+            tag("result", result).
+            register(registry);
+    }
+}
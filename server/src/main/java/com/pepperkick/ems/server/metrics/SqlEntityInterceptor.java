@@ -0,0 +1,19 @@
+package com.pepperkick.ems.server.metrics;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+// Counts the entities Hibernate loads
+// Registered through the hibernate.session_factory.interceptor property
+public class SqlEntityInterceptor extends EmptyInterceptor {
+    @Override
+    public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+        SqlProfile profile = SqlProfiler.current();
+        if (profile != null)
+            profile.entityLoad();
+
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+package com.pepperkick.ems.server.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// SQL statements, JDBC time and entity loads of a single request
+public class SqlProfile {
+    private int statements;
+    private long jdbcNanos;
+    private int entityLoads;
+    private final Map<String, Query> queries = new LinkedHashMap<>();
+
+    private Query lastQuery;
+    private long executeStart;
+
+    void statement(String sql) {
+        statements++;
+        lastQuery = queries.computeIfAbsent(sql, Query::new);
+        lastQuery.count++;
+    }
+
+    void executeStart() {
+        executeStart = System.nanoTime();
+    }
+
+    void executeEnd() {
+        long nanos = System.nanoTime() - executeStart;
+        jdbcNanos += nanos;
+
+        // Statements are executed right after they are prepared so the time belongs to the last inspected statement
+        if (lastQuery != null)
+            lastQuery.nanos += nanos;
+    }
+
+    void entityLoad() {
+        entityLoads++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public double getJdbcMillis() {
+        return jdbcNanos / 1_000_000.0;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    // Distinct statements ordered by the total time spent executing them
+    public List<Query> getQueries() {
+        List<Query> sorted = new ArrayList<>(queries.values());
+        sorted.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return sorted;
+    }
+
+    public static class Query {
+        private final String sql;
+        private int count;
+        private long nanos;
+
+        Query(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
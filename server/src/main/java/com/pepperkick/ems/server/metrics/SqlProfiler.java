@@ -0,0 +1,25 @@
+package com.pepperkick.ems.server.metrics;
+
+// Keeps the SQL profile of the request handled by the current thread
+// Hibernate hooks record into it only while a profile is started, so work outside of requests is not tracked
+public final class SqlProfiler {
+    private static final ThreadLocal<SqlProfile> profile = new ThreadLocal<>();
+
+    private SqlProfiler() {}
+
+    public static void start() {
+        profile.set(new SqlProfile());
+    }
+
+    // Stop profiling and return the profile since it was started, empty if it was never started
+    public static SqlProfile stop() {
+        SqlProfile current = profile.get();
+        profile.remove();
+
+        return current != null ? current : new SqlProfile();
+    }
+
+    static SqlProfile current() {
+        return profile.get();
+    }
+}
@@ -0,0 +1,167 @@
+package com.pepperkick.ems.server.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Profiles the SQL work of each request
+// Statement counts and JDBC time are always recorded as metrics, tagged by method and URI pattern
+// When enabled, requests slower than the threshold are logged with their query breakdown
+// and in debug mode the profile summary is returned in the response headers
+public class SqlProfilerFilter extends OncePerRequestFilter {
+    public static final String QUERIES_METRIC = "ems.http.queries";
+    public static final String JDBC_METRIC = "ems.http.jdbc";
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String JDBC_TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String ENTITY_LOADS_HEADER = "X-SQL-Entity-Loads";
+
+    private static final int SLOW_LOG_QUERIES = 10;
+
+    // Set by the streaming return value handlers of Spring MVC before they write the body
+    private static final String STREAMING_ATTRIBUTE = ShallowEtagHeaderFilter.class.getName() + ".STREAMING";
+
+    private final Logger logger = LoggerFactory.getLogger(SqlProfilerFilter.class);
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean debug;
+    private final long slowRequestMillis;
+
+    public SqlProfilerFilter(MeterRegistry meterRegistry, boolean enabled, boolean debug, long slowRequestMillis) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.debug = debug;
+        this.slowRequestMillis = slowRequestMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        // Streamed responses finish in an async dispatch which only has to flush the buffered body
+        if (isAsyncDispatch(request)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                copyBody(request, response);
+            }
+            return;
+        }
+
+        // Headers can only be added after the handler ran if the response is buffered until then
+        HttpServletResponse responseToUse = enabled && debug ? new StreamingAwareResponseWrapper(request, response) : response;
+        long start = System.nanoTime();
+        SqlProfile profile;
+
+        SqlProfiler.start();
+        try {
+            chain.doFilter(request, responseToUse);
+        } finally {
+            profile = SqlProfiler.stop();
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        record(request, profile);
+
+        if (enabled && millis >= slowRequestMillis)
+            logSlowRequest(request, millis, profile);
+
+        // Streamed bodies are written as the handler goes, the headers are sent before the profile is complete
+        if (enabled && debug && !isAsyncStarted(request)) {
+            responseToUse.setHeader(STATEMENTS_HEADER, String.valueOf(profile.getStatements()));
+            responseToUse.setHeader(JDBC_TIME_HEADER, String.format("%.3f", profile.getJdbcMillis()));
+            responseToUse.setHeader(ENTITY_LOADS_HEADER, String.valueOf(profile.getEntityLoads()));
+            copyBody(request, responseToUse);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void copyBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (isAsyncStarted(request))
+            return;
+
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null)
+            wrapper.copyBodyToResponse();
+    }
+
+    private void record(HttpServletRequest request, SqlProfile profile) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder(QUERIES_METRIC).
+            description("Number of SQL statements made by a request").
+            tag("method", request.getMethod()).
+            tag("uri", uri).
+            publishPercentileHistogram().
+            register(meterRegistry).
+            record(profile.getStatements());
+
+        Timer.builder(JDBC_METRIC).
+            description("Time spent executing SQL statements by a request").
+            tag("method", request.getMethod()).
+            tag("uri", uri).
+            register(meterRegistry).
+            record(profile.getJdbcNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void logSlowRequest(HttpServletRequest request, long millis, SqlProfile profile) {
+        StringBuilder message = new StringBuilder(String.format(
+            "Slow request %s %s took %d ms with %d statements in %.3f ms and %d entity loads",
+            request.getMethod(), request.getRequestURI(), millis,
+            profile.getStatements(), profile.getJdbcMillis(), profile.getEntityLoads()
+        ));
+
+        List<SqlProfile.Query> queries = profile.getQueries();
+        for (SqlProfile.Query query : queries.subList(0, Math.min(queries.size(), SLOW_LOG_QUERIES)))
+            message.append(String.format("%n  %dx %.3f ms %s", query.getCount(), query.getMillis(), query.getSql()));
+
+        if (queries.size() > SLOW_LOG_QUERIES)
+            message.append(String.format("%n  ... %d more statements", queries.size() - SLOW_LOG_QUERIES));
+
+        logger.warn(message.toString());
+    }
+
+    // Buffers the body until the profile headers are added, except for streamed bodies which are written to the client directly
+    private static class StreamingAwareResponseWrapper extends ContentCachingResponseWrapper {
+        private final HttpServletRequest request;
+
+        StreamingAwareResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isStreaming() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isStreaming() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        private boolean isStreaming() {
+            return request.getAttribute(STREAMING_ATTRIBUTE) != null;
+        }
+    }
+}
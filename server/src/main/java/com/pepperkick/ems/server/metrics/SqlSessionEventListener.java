@@ -0,0 +1,39 @@
+package com.pepperkick.ems.server.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Measures the time spent executing JDBC statements and batches
+// Created for every session through the hibernate.session.events.auto property
+public class SqlSessionEventListener extends BaseSessionEventListener {
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executeEnd();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executeEnd();
+    }
+
+    private static void executeStart() {
+        SqlProfile profile = SqlProfiler.current();
+        if (profile != null)
+            profile.executeStart();
+    }
+
+    private static void executeEnd() {
+        SqlProfile profile = SqlProfiler.current();
+        if (profile != null)
+            profile.executeEnd();
+    }
+}
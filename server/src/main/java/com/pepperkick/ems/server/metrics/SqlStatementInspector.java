@@ -0,0 +1,16 @@
+package com.pepperkick.ems.server.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Records every SQL statement Hibernate prepares
+// Registered through the hibernate.session_factory.statement_inspector property
+public class SqlStatementInspector implements StatementInspector {
+    @Override
+    public String inspect(String sql) {
+        SqlProfile profile = SqlProfiler.current();
+        if (profile != null)
+            profile.statement(sql);
+
+        return sql;
+    }
+}
@@ -0,0 +1,100 @@
+package com.pepperkick.ems.server.projection;
+
+import com.pepperkick.ems.server.entity.Employee;
+import org.apache.ignite.cache.query.annotations.QuerySqlField;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class EmployeeSummary implements Comparable<EmployeeSummary> {
+    @QuerySqlField(index = true)
+    private Integer id;
+
+    @QuerySqlField
+    private String name;
+
+    private String sortName;
+
+    @QuerySqlField(index = true)
+    private Integer designationId;
+
+    @QuerySqlField
+    private String jobTitle;
+
+    @QuerySqlField
+    private float level;
+
+    @QuerySqlField(index = true)
+    private Integer managerId;
+
+    public EmployeeSummary(Integer id, String name, Integer designationId, String jobTitle, Float level, Integer managerId) {
+        this.id = id;
+        this.name = name;
+        this.sortName = Employee.toSortName(name);
+        this.designationId = designationId;
+        this.jobTitle = jobTitle;
+        this.level = level;
+        this.managerId = managerId;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSortName() {
+        return sortName;
+    }
+
+    public Integer getDesignationId() {
+        return designationId;
+    }
+
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    public float getLevel() {
+        return level;
+    }
+
+    @Nullable
+    public Integer getManagerId() {
+        return managerId;
+    }
+
+    // Same order as Employee.compare, by designation level, name and ID
+    @Override
+    public int compareTo(EmployeeSummary o) {
+        float levelDiff = this.getLevel() - o.getLevel();
+        if (levelDiff == 0) {
+            int nameDiff = this.getSortName().compareTo(o.getSortName());
+            if (nameDiff == 0) {
+                return this.getId() - o.getId();
+            } else {
+                return nameDiff > 0 ? 1 : -1;
+            }
+        } else {
+            return levelDiff > 0 ? 1 : -1;
+        }
+    }
+
+    // Opaque cursor of the employee's place in the order, a page continues after it even if the employee is changed or deleted
+    public String toCursor() {
+        String key = getLevel() + ":" + getId() + ":" + getSortName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Summary holding only the designation level, name and ID of a cursor, to compare employees with
+    public static EmployeeSummary fromCursor(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        if (parts.length != 3)
+            throw new IllegalArgumentException("Cursor " + cursor + " does not have a level, ID and name");
+
+        return new EmployeeSummary(Integer.parseInt(parts[1]), parts[2], null, null, Float.parseFloat(parts[0]), null);
+    }
+}
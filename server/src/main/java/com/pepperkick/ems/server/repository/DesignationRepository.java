@@ -1,13 +1,14 @@
 package com.pepperkick.ems.server.repository;
 
 import com.pepperkick.ems.server.entity.Designation;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface DesignationRepository extends CrudRepository<Designation, Integer> {
+public interface DesignationRepository extends JpaRepository<Designation, Integer> {
     // Find a designation by ID
     Designation findById(int id);
 
@@ -22,4 +23,8 @@ public interface DesignationRepository extends CrudRepository<Designation, Integ
 
     // Find all designations of certain level
     List<Designation> findByLevel(float level);
+
+    // Find the highest designation ID
+    @Query("SELECT COALESCE(MAX(d.id), 0) FROM Designation d")
+    int findMaxId();
 }
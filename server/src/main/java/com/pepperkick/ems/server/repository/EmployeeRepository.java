@@ -2,19 +2,141 @@ package com.pepperkick.ems.server.repository;
 
 import com.pepperkick.ems.server.entity.Designation;
 import com.pepperkick.ems.server.entity.Employee;
-import org.springframework.data.repository.CrudRepository;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface EmployeeRepository extends CrudRepository<Employee, Integer> {
-    // Find employee of specific ID
+public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+    // Employees added without a level use their designation's level until the levels are synced on startup
+    String SELECT_SUMMARY = "SELECT new com.pepperkick.ems.server.projection.EmployeeSummary(e.id, e.name, d.id, d.title, COALESCE(e.level, d.level), m.id) " +
+            "FROM Employee e JOIN e.designation d LEFT JOIN e.manager m ";
+
+    // Find employee of specific ID along with it's designation and manager in a single query
+    // Subordinates are not fetched here as the sorted set needs their designations to be loaded before it can be filled
+    @EntityGraph(attributePaths = { "designation", "manager", "manager.designation" })
     Employee findById(int id);
 
+    // Find summary of employee of specific ID
+    @Query(SELECT_SUMMARY + "WHERE e.id = :id")
+    EmployeeSummary findSummaryById(@Param("id") int id);
+
+    // Find summaries of employees of specific IDs
+    @Query(SELECT_SUMMARY + "WHERE e.id IN :ids")
+    List<EmployeeSummary> findSummariesByIds(@Param("ids") Collection<Integer> ids);
+
+    // Find summaries of employees of specific IDs along with their direct subordinates
+    @Query(SELECT_SUMMARY + "WHERE e.id IN :ids OR m.id IN :ids")
+    List<EmployeeSummary> findSummariesWithSubordinatesByIds(@Param("ids") Collection<Integer> ids);
+
+    // Find and lock employees of specific IDs until the transaction ends, always in ID order so transactions wait instead of deadlocking
+    // An employee the transaction already loaded is checked against it's version, failing if it was changed since
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Employee e WHERE e.id IN :ids ORDER BY e.id")
+    List<Employee> lockAllByIds(@Param("ids") Collection<Integer> ids);
+
+    // Find hierarchy path of employee of specific ID
+    @Query("SELECT e.path FROM Employee e WHERE e.id = :id")
+    String findPathById(@Param("id") int id);
+
     // Find all employees
     List<Employee> findAll();
 
-    // Find all employees of specific designations
-    List<Employee> findEmployeeByDesignation(Designation designation);
+    // Check if any employee has specific designation
+    boolean existsByDesignation(Designation designation);
+
+    // Find a page of employee summaries ordered by designation level, sort name and ID
+    @Query(SELECT_SUMMARY + "ORDER BY e.level, e.sortName, e.id")
+    List<EmployeeSummary> findPage(Pageable pageable);
+
+    // Find a page of employee summaries that come after the given designation level, sort name and ID
+    @Query(SELECT_SUMMARY +
+            "WHERE e.level > :level OR (e.level = :level AND (e.sortName > :sortName OR (e.sortName = :sortName AND e.id > :id))) " +
+            "ORDER BY e.level, e.sortName, e.id")
+    List<EmployeeSummary> findPageAfter(@Param("level") float level, @Param("sortName") String sortName, @Param("id") int id, Pageable pageable);
+
+    // Find the highest designation level, the lowest level value, among the direct subordinates of an employee
+    @Query("SELECT MIN(e.level) FROM Employee e WHERE e.manager = :manager")
+    Float findHighestSubordinateLevel(@Param("manager") Employee manager);
+
+    // Find the lowest designation level, the highest level value, among the direct subordinates of an employee
+    @Query("SELECT MAX(e.level) FROM Employee e WHERE e.manager = :manager")
+    Float findLowestSubordinateLevel(@Param("manager") Employee manager);
+
+    // Check if the director is flagged
+    boolean existsByDirectorTrue();
+
+    // Bulk updates are VERSIONED so every changed employee gets a new version, like with a regular save
+    // A concurrent change that loaded one of them before the update then fails instead of writing back stale values
+
+    // Flag the employees of the given designation as the director
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE VERSIONED Employee e SET e.director = TRUE WHERE e.designation = :designation")
+    int markDirector(@Param("designation") Designation designation);
+
+    // Remove the director flag of the employee of specific ID
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE VERSIONED Employee e SET e.director = NULL WHERE e.id = :id")
+    int clearDirector(@Param("id") int id);
+
+    // Find the highest employee ID
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM Employee e")
+    int findMaxId();
+
+    // Check if any employee is missing it's hierarchy path
+    boolean existsByPathIsNull();
+
+    // Find summaries of all employees under the given hierarchy path ordered by designation level, name and ID
+    @Query(SELECT_SUMMARY +
+            "WHERE e.path LIKE CONCAT(:path, '%') AND e.path <> :path " +
+            "ORDER BY e.level, e.sortName, e.id")
+    List<EmployeeSummary> findDescendants(@Param("path") String path);
+
+    // Count employees whose level does not match the level of their designation
+    @Query("SELECT COUNT(e) FROM Employee e JOIN e.designation d WHERE e.level IS NULL OR e.level <> d.level")
+    long countStaleLevels();
+
+    // Copy the level of each employee's designation to the employee
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE VERSIONED Employee e SET e.level = (SELECT d.level FROM Designation d WHERE d = e.designation)")
+    int syncLevels();
+
+    // Check if any employee was added without a sort name
+    boolean existsBySortNameIsNull();
+
+    // Set the sort name of employees that were added without one
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE VERSIONED Employee e SET e.sortName = LOWER(TRIM(e.name)) WHERE e.sortName IS NULL")
+    int syncSortNames();
+
+    // Find IDs of the direct subordinates of an employee
+    @Query("SELECT e.id FROM Employee e WHERE e.manager = :manager")
+    List<Integer> findSubordinateIds(@Param("manager") Employee manager);
+
+    // Move every direct subordinate of an employee under the given manager
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE VERSIONED Employee e SET e.manager = :newManager WHERE e.manager = :oldManager")
+    int changeManager(@Param("oldManager") Employee oldManager, @Param("newManager") Employee newManager);
+
+    // Replace the beginning of the hierarchy path of every employee under the given path
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE VERSIONED Employee e SET e.path = CONCAT(:newPath, SUBSTRING(e.path, :start)) WHERE e.path LIKE CONCAT(:oldPath, '%')")
+    int movePath(@Param("oldPath") String oldPath, @Param("newPath") String newPath, @Param("start") int start);
 }
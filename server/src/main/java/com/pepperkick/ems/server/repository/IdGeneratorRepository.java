@@ -0,0 +1,76 @@
+package com.pepperkick.ems.server.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Generators are changed on a pool of connections of their own, not the one of the transactions waiting for an ID
+// A transaction holds it's connection while waiting, so once they hold every connection of a shared pool none could get an ID
+@Repository
+public class IdGeneratorRepository implements DisposableBean {
+    public static final String EMPLOYEE = "EMPLOYEE";
+    public static final String DESIGNATION = "DESIGNATION";
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public IdGeneratorRepository(DataSourceProperties properties, @Value("${ems.id-generator.maximum-pool-size:2}") int maximumPoolSize) {
+        dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-generator");
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Move a generator past the given ID, so rows added without the generator are never handed out again
+    // The generator stores the last ID it has handed out and continues from the one after it
+    public void reserve(String segment, int maxId) {
+        // Only ever move the generator forward, another instance may already have allocated past this ID
+        if (jdbcTemplate.update("UPDATE ID_GENERATOR SET NEXT_VAL = ? WHERE SEQUENCE_NAME = ? AND NEXT_VAL < ?", maxId, segment, maxId) > 0)
+            return;
+
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ID_GENERATOR WHERE SEQUENCE_NAME = ?", Integer.class, segment);
+        if (count != null && count > 0)
+            return;
+
+        // Generator table was created without the row, create it starting after the given ID
+        try {
+            jdbcTemplate.update("INSERT INTO ID_GENERATOR (SEQUENCE_NAME, NEXT_VAL) VALUES (?, ?)", segment, maxId);
+        } catch (DuplicateKeyException e) {
+            // Created by another instance in the meantime
+            reserve(segment, maxId);
+        }
+    }
+
+    // Allocate the next block of IDs of a generator and return the first ID of it
+    // The update locks the row until the commit, so the value read after it belongs to this block only
+    public long allocate(String segment, int size) {
+        Long last = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update("UPDATE ID_GENERATOR SET NEXT_VAL = NEXT_VAL + ? WHERE SEQUENCE_NAME = ?", size, segment) == 0) {
+                reserve(segment, 0);
+                jdbcTemplate.update("UPDATE ID_GENERATOR SET NEXT_VAL = NEXT_VAL + ? WHERE SEQUENCE_NAME = ?", size, segment);
+            }
+
+            return jdbcTemplate.queryForObject("SELECT NEXT_VAL FROM ID_GENERATOR WHERE SEQUENCE_NAME = ?", Long.class, segment);
+        });
+
+        return last - size + 1;
+    }
+
+    @Override
+    public void destroy() {
+        dataSource.close();
+    }
+}
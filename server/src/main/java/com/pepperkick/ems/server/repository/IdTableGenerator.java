@@ -0,0 +1,49 @@
+package com.pepperkick.ems.server.repository;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+// Table generator that allocates it's blocks through IdGeneratorRepository instead of a second connection of the transaction's pool
+// The table, the blocks and the optimizer stay the ones of Hibernate's generator
+public class IdTableGenerator extends TableGenerator {
+    // Hibernate property holding the IdGeneratorRepository of the application
+    public static final String REPOSITORY = "ems.id-generator.repository";
+
+    private IdGeneratorRepository repository;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+
+        repository = (IdGeneratorRepository) serviceRegistry.getService(ConfigurationService.class).getSettings().get(REPOSITORY);
+        if (repository == null)
+            throw new MappingException("Hibernate property " + REPOSITORY + " is not set");
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object obj) {
+        return getOptimizer().generate(new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                IntegralDataTypeHolder value = IdentifierGeneratorHelper.getIntegralDataTypeHolder(getIdentifierType().getReturnedClass());
+                value.initialize(repository.allocate(getSegmentValue(), getIncrementSize()));
+                return value;
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return session.getTenantIdentifier();
+            }
+        });
+    }
+}
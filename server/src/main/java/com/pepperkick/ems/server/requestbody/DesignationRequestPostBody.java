@@ -1,7 +1,6 @@
 package com.pepperkick.ems.server.requestbody;
 
 import com.pepperkick.ems.server.exception.BadRequestException;
-import com.pepperkick.ems.server.exception.ValidationError;
 import com.pepperkick.ems.server.util.MessageHelper;
 import com.pepperkick.ems.server.util.ValidatorHelper;
 import io.swagger.annotations.ApiModel;
@@ -19,36 +18,11 @@ public class DesignationRequestPostBody {
     private boolean equals;
 
     public void validate(MessageHelper messageHelper) {
-        try {
-            ValidatorHelper.validateName(this.name);
-        } catch (ValidationError e) {
-            switch (e.code) {
-                case "null":
-                case "empty":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.designation.empty.param.name")
-                    );
-                case "invalid":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.designation.param.name.invalid")
-                    );
-                case "tooLong":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.designation.param.name.too_long")
-                    );
-                case "tooShort":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.designation.param.name.too_short")
-                    );
-                default:
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.unknown_error")
-                    );
-            }
-        }
-        if (this.name.length() > 30)
+        ValidatorHelper.NameError error = ValidatorHelper.checkName(this.name);
+
+        if (error != null)
             throw new BadRequestException(
-                    messageHelper.getMessage("error.route.designation.param.name.too_long")
+                    messageHelper.getMessage(error.getTag("error.route.designation"))
             );
     }
 
@@ -1,7 +1,6 @@
 package com.pepperkick.ems.server.requestbody;
 
 import com.pepperkick.ems.server.exception.BadRequestException;
-import com.pepperkick.ems.server.exception.ValidationError;
 import com.pepperkick.ems.server.util.MessageHelper;
 import com.pepperkick.ems.server.util.ValidatorHelper;
 
@@ -18,32 +17,11 @@ public class EmployeeRequestBody {
     }
 
     public static void validateName(MessageHelper messageHelper, String name) {
-        try {
-            ValidatorHelper.validateName(name);
-        } catch (ValidationError e) {
-            switch (e.code) {
-                case "null":
-                case "empty":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.employee.empty.param.name")
-                    );
-                case "invalid":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.employee.param.name.invalid")
-                    );
-                case "tooLong":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.employee.param.name.too_long")
-                    );
-                case "tooShort":
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.employee.param.name.too_short")
-                    );
-                default:
-                    throw new BadRequestException(
-                            messageHelper.getMessage("error.route.unknown_error")
-                    );
-            }
-        }
+        ValidatorHelper.NameError error = ValidatorHelper.checkName(name);
+
+        if (error != null)
+            throw new BadRequestException(
+                    messageHelper.getMessage(error.getTag("error.route.employee"))
+            );
     }
 }
@@ -0,0 +1,55 @@
+package com.pepperkick.ems.server.requestbody;
+
+import com.pepperkick.ems.server.exception.BadRequestException;
+import com.pepperkick.ems.server.util.MessageHelper;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApiModel(value = "Details to add new employees in bulk")
+public class EmployeeRequestBulkBody {
+    public static final int MAX_EMPLOYEES = 10000;
+
+    @ApiModelProperty(name = "employees", value = "Employees to add, referring to their managers by ID or by reference", required = true, position = 1)
+    private List<EmployeeRequestBulkItem> employees;
+
+    public void validate(MessageHelper messageHelper) {
+        if (employees == null || employees.isEmpty())
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.bulk.empty"));
+
+        if (employees.size() > MAX_EMPLOYEES)
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.bulk.too_large", MAX_EMPLOYEES));
+
+        // Collect references of all employees so managers can be checked regardless of their order
+        Set<String> refs = new HashSet<>();
+        for (EmployeeRequestBulkItem employee : employees) {
+            if (employee.getRef() == null || employee.getRef().compareTo("") == 0)
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.bulk.empty.ref"));
+
+            if (!refs.add(employee.getRef()))
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.bulk.duplicate.ref", employee.getRef()));
+        }
+
+        for (EmployeeRequestBulkItem employee : employees) {
+            EmployeeRequestBody.validate(messageHelper, employee.getName(), employee.getJobTitle());
+
+            // Manager can either be an existing employee or one from this request
+            if (employee.getManagerId() != -1 && employee.getManagerRef() != null)
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.bulk.ambiguous.manager", employee.getRef()));
+
+            if (employee.getManagerRef() != null && !refs.contains(employee.getManagerRef()))
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.bulk.notfound.manager_ref", employee.getManagerRef()));
+        }
+    }
+
+    public List<EmployeeRequestBulkItem> getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(List<EmployeeRequestBulkItem> employees) {
+        this.employees = employees;
+    }
+}
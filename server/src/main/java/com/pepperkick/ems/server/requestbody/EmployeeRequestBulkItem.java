@@ -0,0 +1,66 @@
+package com.pepperkick.ems.server.requestbody;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(value = "Details of an employee to add in bulk")
+public class EmployeeRequestBulkItem {
+    @ApiModelProperty(name = "ref", example = "ironman", value = "Reference of the Employee unique within the request", required = true, position = 1)
+    private String ref;
+
+    @ApiModelProperty(name = "name", example = "Iron Man", value = "Name of the Employee", required = true, position = 2)
+    private String name;
+
+    @ApiModelProperty(name = "jobTitle", example = "Manager", value = "Designation title of the Employee", required = true, position = 3)
+    private String jobTitle;
+
+    @ApiModelProperty(name = "managerId", example = "1", value = "ID of an existing Employee to be the Manager", required = false, position = 4)
+    private int managerId = -1;
+
+    @ApiModelProperty(name = "managerRef", example = "thor", value = "Reference of an Employee in the same request to be the Manager", required = false, position = 5)
+    private String managerRef;
+
+    public String getRef() {
+        return ref;
+    }
+
+    public void setRef(String ref) {
+        this.ref = ref;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    public void setJobTitle(String jobTitle) {
+        this.jobTitle = jobTitle;
+    }
+
+    public int getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(int managerId) {
+        this.managerId = managerId;
+    }
+
+    public String getManagerRef() {
+        return managerRef;
+    }
+
+    public void setManagerRef(String managerRef) {
+        this.managerRef = managerRef;
+    }
+
+    public boolean hasManager() {
+        return managerId != -1 || managerRef != null;
+    }
+}
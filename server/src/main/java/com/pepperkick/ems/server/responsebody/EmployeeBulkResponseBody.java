@@ -0,0 +1,26 @@
+package com.pepperkick.ems.server.responsebody;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+@ApiModel(value = "Employee added in bulk")
+public class EmployeeBulkResponseBody {
+    @ApiModelProperty(notes = "Reference of the Employee from the request", position = 1)
+    private String ref;
+
+    @ApiModelProperty(notes = "Employee's ID", position = 2)
+    private int id;
+
+    public EmployeeBulkResponseBody(String ref, int id) {
+        this.ref = ref;
+        this.id = id;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
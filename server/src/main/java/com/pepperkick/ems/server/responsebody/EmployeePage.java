@@ -0,0 +1,26 @@
+package com.pepperkick.ems.server.responsebody;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+// Page of employees along with the cursor to continue the list after it
+public class EmployeePage {
+    private final List<EmployeeResponseBody> employees;
+    private final String nextCursor;
+
+    public EmployeePage(List<EmployeeResponseBody> employees, @Nullable String nextCursor) {
+        this.employees = employees;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<EmployeeResponseBody> getEmployees() {
+        return employees;
+    }
+
+    // Only set when the page is full, as more employees may come after it
+    @Nullable
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.pepperkick.ems.server.responsebody;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+@ApiModel(value = "Employee")
+public class EmployeeResponseBody {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(notes = "Employee's ID", position = 1)
+    private Integer id;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(notes = "Employee's Name", position = 2)
+    private String name;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(notes = "Employee's Job Title", example = "Director", position = 3)
+    private String jobTitle;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(notes = "Employee's Manager", position = 4)
+    private EmployeeResponseBody manager;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @ApiModelProperty(notes = "Employee's Colleagues", position = 5)
+    private List<EmployeeResponseBody> colleagues;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @ApiModelProperty(notes = "Employee's Subordinates", position = 6)
+    private List<EmployeeResponseBody> subordinates;
+
+    public EmployeeResponseBody(EmployeeSummary summary) {
+        this(summary, EmployeeView.FULL);
+    }
+
+    // Fields left out of the view are not serialized
+    public EmployeeResponseBody(EmployeeSummary summary, EmployeeView view) {
+        this.id = view.has(EmployeeView.Field.ID) ? summary.getId() : null;
+        this.name = view.has(EmployeeView.Field.NAME) ? summary.getName() : null;
+        this.jobTitle = view.has(EmployeeView.Field.JOB_TITLE) ? summary.getJobTitle() : null;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    public EmployeeResponseBody getManager() {
+        return manager;
+    }
+
+    public void setManager(EmployeeResponseBody manager) {
+        this.manager = manager;
+    }
+
+    public List<EmployeeResponseBody> getColleagues() {
+        return colleagues;
+    }
+
+    public void setColleagues(List<EmployeeResponseBody> colleagues) {
+        this.colleagues = colleagues;
+    }
+
+    public List<EmployeeResponseBody> getSubordinates() {
+        return subordinates;
+    }
+
+    public void setSubordinates(List<EmployeeResponseBody> subordinates) {
+        this.subordinates = subordinates;
+    }
+}
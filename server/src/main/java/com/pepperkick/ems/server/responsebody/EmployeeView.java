@@ -0,0 +1,85 @@
+package com.pepperkick.ems.server.responsebody;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Fields of each employee and the related employees to include in an employee response
+public class EmployeeView {
+    public enum Field {
+        ID("id"), NAME("name"), JOB_TITLE("jobTitle");
+
+        private final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+    }
+
+    public enum Relation {
+        MANAGER("manager"), COLLEAGUES("colleagues"), SUBORDINATES("subordinates");
+
+        private final String name;
+
+        Relation(String name) {
+            this.name = name;
+        }
+    }
+
+    // Every field along with every related employee, used when the request does not ask for less
+    public static final EmployeeView FULL = new EmployeeView(EnumSet.allOf(Field.class), EnumSet.allOf(Relation.class));
+
+    private final Set<Field> fields;
+    private final Set<Relation> relations;
+
+    public EmployeeView(Set<Field> fields, Set<Relation> relations) {
+        this.fields = fields;
+        this.relations = relations;
+    }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean has(Relation relation) {
+        return relations.contains(relation);
+    }
+
+    // Get the fields from a comma separated list of names, or null if any name is unknown
+    public static Set<Field> parseFields(String value) {
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        for (String name : split(value)) {
+            Field field = null;
+            for (Field candidate : Field.values())
+                if (candidate.name.equals(name))
+                    field = candidate;
+
+            if (field == null)
+                return null;
+            fields.add(field);
+        }
+
+        return fields;
+    }
+
+    // Get the relations from a comma separated list of names, or null if any name is unknown
+    public static Set<Relation> parseRelations(String value) {
+        Set<Relation> relations = EnumSet.noneOf(Relation.class);
+        for (String name : split(value)) {
+            Relation relation = null;
+            for (Relation candidate : Relation.values())
+                if (candidate.name.equals(name))
+                    relation = candidate;
+
+            if (relation == null)
+                return null;
+            relations.add(relation);
+        }
+
+        return relations;
+    }
+
+    private static String[] split(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("\\s*,\\s*");
+    }
+}
@@ -0,0 +1,71 @@
+package com.pepperkick.ems.server.retry;
+
+import com.pepperkick.ems.server.exception.ConflictException;
+import com.pepperkick.ems.server.util.MessageHelper;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Retries methods annotated with @RetryOnConflict when their transaction fails due to a concurrent change
+// Ordered before the transaction interceptor so every attempt runs and commits in a new transaction
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RetryOnConflictAspect {
+    private final Logger logger = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+    private final MessageHelper messageHelper;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    @Autowired
+    public RetryOnConflictAspect(
+        MessageHelper messageHelper,
+        @Value("${ems.retry.max-attempts:3}") int maxAttempts,
+        @Value("${ems.retry.backoff-ms:50}") long backoffMillis
+    ) {
+        this.messageHelper = messageHelper;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    @Around("@annotation(com.pepperkick.ems.server.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // A method joining an outer transaction cannot be retried on it's own
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return joinPoint.proceed();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                // Optimistic lock failures are retried with the latest state of the database
+                if (attempt >= maxAttempts)
+                    throw new ConflictException(messageHelper.getMessage("error.route.conflict"));
+
+                logger.debug("Retrying {} after conflict on attempt {}", joinPoint.getSignature().toShortString(), attempt);
+                backoff();
+            } catch (DataIntegrityViolationException e) {
+                // A unique constraint was violated by a concurrent change that got committed first
+                throw new ConflictException(messageHelper.getMessage("error.route.conflict"));
+            }
+        }
+    }
+
+    // Wait for a random time so the conflicting requests do not retry at the same time again
+    private void backoff() throws InterruptedException {
+        if (backoffMillis > 0)
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis + 1));
+    }
+}
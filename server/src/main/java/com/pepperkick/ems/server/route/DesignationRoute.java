@@ -26,11 +26,11 @@ public class DesignationRoute {
     private final ValidatorHelper validatorHelper;
 
     @Autowired
-    public DesignationRoute(DesignationService designationService, DesignationRepository designationRepository, MessageHelper messageHelper, EmployeeRepository employeeRepository) {
+    public DesignationRoute(DesignationService designationService, DesignationRepository designationRepository, MessageHelper messageHelper, ValidatorHelper validatorHelper, EmployeeRepository employeeRepository) {
         this.designationService = designationService;
         this.designationRepository = designationRepository;
         this.messageHelper = messageHelper;
-        this.validatorHelper = new ValidatorHelper(messageHelper);
+        this.validatorHelper = validatorHelper;
     }
 
     @GetMapping(produces = "application/json")
@@ -41,7 +41,7 @@ public class DesignationRoute {
     })
     public ResponseEntity get() {
         // Get all designations ordered by level
-        List<Designation> designations = designationRepository.findAllByOrderByLevelAsc();
+        List<Designation> designations = designationService.findAllByOrderByLevelAsc();
 
         // Return the designation list
         return new ResponseEntity<>(designations, HttpStatus.OK);
@@ -1,8 +1,16 @@
 package com.pepperkick.ems.server.route;
 
-import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pepperkick.ems.server.exception.BadRequestException;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import com.pepperkick.ems.server.requestbody.EmployeeRequestBulkBody;
 import com.pepperkick.ems.server.requestbody.EmployeeRequestPostBody;
 import com.pepperkick.ems.server.requestbody.EmployeeRequestPutBody;
+import com.pepperkick.ems.server.responsebody.EmployeeBulkResponseBody;
+import com.pepperkick.ems.server.responsebody.EmployeePage;
+import com.pepperkick.ems.server.responsebody.EmployeeResponseBody;
+import com.pepperkick.ems.server.responsebody.EmployeeView;
 import com.pepperkick.ems.server.service.EmployeeService;
 import com.pepperkick.ems.server.entity.Employee;
 import com.pepperkick.ems.server.util.MessageHelper;
@@ -11,25 +19,29 @@ import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 @RestController
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = EmployeeRoute.NEXT_CURSOR_HEADER)
 @RequestMapping(value = "/api/v1/employees")
 public class EmployeeRoute {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private static final String TAG_INVALID_ID = "error.route.employee.invalid.id";
-    private final EmployeeRepository employeeRepository;
     private final MessageHelper messageHelper;
     private final ValidatorHelper validatorHelper;
     private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public EmployeeRoute(EmployeeRepository employeeRepository, MessageHelper messageHelper, EmployeeService employeeService) {
-        this.employeeRepository = employeeRepository;
+    public EmployeeRoute(MessageHelper messageHelper, ValidatorHelper validatorHelper, EmployeeService employeeService, ObjectMapper objectMapper) {
         this.messageHelper = messageHelper;
-        this.validatorHelper = new ValidatorHelper(messageHelper);
+        this.validatorHelper = validatorHelper;
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping(produces = "application/json")
@@ -38,15 +50,64 @@ public class EmployeeRoute {
         @ApiResponse(code = 200, message = "Successfully retrieved the list"),
         @ApiResponse(code = 404, message = "No employees found"),
     })
-    public ResponseEntity get() {
-        // Get all employees
-        List<Employee> employees = employeeRepository.findAll();
+    public ResponseEntity get(
+            @ApiParam(name = "after", value = "Cursor returned in the X-Next-Cursor header of the previous page") @RequestParam(value = "after", required = false) String after,
+            @ApiParam(name = "limit", example = "50", value = "Maximum number of employees to return") @RequestParam(value = "limit", defaultValue = "-1") int limit,
+            @ApiParam(name = "fields", example = "id,name", value = "Comma separated fields of each employee, any of id, name and jobTitle") @RequestParam(value = "fields", required = false) String fields,
+            @ApiParam(name = "expand", example = "manager", value = "Comma separated related employees to include, any of manager, colleagues and subordinates") @RequestParam(value = "expand", required = false) String expand
+    ) {
+        // Validate page parameters
+        if (limit != -1 && (limit < 1 || limit > EmployeeService.MAX_PAGE_LIMIT))
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.invalid.limit", limit, EmployeeService.MAX_PAGE_LIMIT));
+        EmployeeView view = getView(fields, expand);
 
-        // Sort the list according to designation and name
-        employees.sort(Employee::compareTo);
+        // Get the page of employees sorted according to designation and name
+        EmployeePage page = employeeService.findAll(after, limit, view);
 
-        // Return employee list
-        return new ResponseEntity<>(employees, HttpStatus.OK);
+        // Return employee list, along with the cursor of the next page if there can be one
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null)
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+
+        return response.body(page.getEmployees());
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @ApiOperation(value = "Export all employees as newline delimited JSON records of id, name, jobTitle and managerId")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "Successfully started the export"),
+    })
+    public ResponseEntity<StreamingResponseBody> export() {
+        // Write each page of employees as soon as it is read instead of building the whole list
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+
+                employeeService.forEachPage(page -> {
+                    try {
+                        for (EmployeeSummary employee : page) {
+                            generator.writeStartObject();
+                            generator.writeNumberField("id", employee.getId());
+                            generator.writeStringField("name", employee.getName());
+                            generator.writeStringField("jobTitle", employee.getJobTitle());
+                            if (employee.getManagerId() != null)
+                                generator.writeNumberField("managerId", employee.getManagerId());
+                            else
+                                generator.writeNullField("managerId");
+                            generator.writeEndObject();
+                            generator.writeRaw('\n');
+                        }
+
+                        // Send the page to the client before reading the next one
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
     }
 
     @PostMapping(consumes = "application/json", produces = "application/json")
@@ -66,23 +127,89 @@ public class EmployeeRoute {
         return new ResponseEntity<>(employee, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/bulk", consumes = "application/json", produces = "application/json")
+    @ApiOperation(value = "Add new employees in bulk", response = EmployeeBulkResponseBody.class)
+    @ApiResponses(value = {
+        @ApiResponse(code = 201, message = "Successfully created all new employees", response = EmployeeBulkResponseBody.class),
+        @ApiResponse(code = 400, message = "Invalid post body, no employee is created")
+    })
+    public ResponseEntity postBulk(@ApiParam(value = "Information of new employees") @NotNull @RequestBody EmployeeRequestBulkBody body) {
+        // Validate body
+        body.validate(messageHelper);
+
+        // Create all new employees in a single transaction
+        List<EmployeeBulkResponseBody> employees = employeeService.createAll(body.getEmployees());
+
+        // Return IDs of the new employees
+        return new ResponseEntity<>(employees, HttpStatus.CREATED);
+    }
+
     @GetMapping(value = "/{id}", produces = "application/json")
     @ApiOperation(value = "Get information of specific employee", response = Employee.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved the employee information"),
             @ApiResponse(code = 404, message = "Employee not found"),
     })
-    public ResponseEntity getById(@ApiParam(name = "id", example = "1", value = "Employee's ID", required = true) @PathVariable int id) {
+    public ResponseEntity getById(
+            @ApiParam(name = "id", example = "1", value = "Employee's ID", required = true) @PathVariable int id,
+            @ApiParam(name = "fields", example = "id,name", value = "Comma separated fields of each employee, any of id, name and jobTitle") @RequestParam(value = "fields", required = false) String fields,
+            @ApiParam(name = "expand", example = "manager", value = "Comma separated related employees to include, any of manager, colleagues and subordinates") @RequestParam(value = "expand", required = false) String expand
+    ) {
         // Validate given ID
         validatorHelper.validateIdWithError(id, TAG_INVALID_ID);
+        EmployeeView view = getView(fields, expand);
 
         // Get employee ith the given ID
-        Employee employee; employee = employeeService.findById(id);
+        EmployeeResponseBody employee = employeeService.findResponseById(id, view);
 
         // Return employee
         return new ResponseEntity<Object>(employee, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/{id}/reports", produces = "application/json")
+    @ApiOperation(value = "View the list of all employees reporting directly or indirectly to specific employee", response = Employee.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved the list"),
+            @ApiResponse(code = 404, message = "Employee not found"),
+    })
+    public ResponseEntity getReportsById(
+            @ApiParam(name = "id", example = "1", value = "Employee's ID", required = true) @PathVariable int id,
+            @ApiParam(name = "fields", example = "id,name", value = "Comma separated fields of each employee, any of id, name and jobTitle") @RequestParam(value = "fields", required = false) String fields,
+            @ApiParam(name = "expand", example = "manager", value = "Comma separated related employees to include, any of manager, colleagues and subordinates") @RequestParam(value = "expand", required = false) String expand
+    ) {
+        // Validate given ID
+        validatorHelper.validateIdWithError(id, TAG_INVALID_ID);
+        EmployeeView view = getView(fields, expand);
+
+        // Get all employees under the employee with the given ID
+        List<EmployeeResponseBody> employees = employeeService.findReports(id, view);
+
+        // Return employee list
+        return new ResponseEntity<>(employees, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/{id}/chain", produces = "application/json")
+    @ApiOperation(value = "View the chain of command above specific employee", response = Employee.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved the list"),
+            @ApiResponse(code = 404, message = "Employee not found"),
+    })
+    public ResponseEntity getChainById(
+            @ApiParam(name = "id", example = "1", value = "Employee's ID", required = true) @PathVariable int id,
+            @ApiParam(name = "fields", example = "id,name", value = "Comma separated fields of each employee, any of id, name and jobTitle") @RequestParam(value = "fields", required = false) String fields,
+            @ApiParam(name = "expand", example = "manager", value = "Comma separated related employees to include, any of manager, colleagues and subordinates") @RequestParam(value = "expand", required = false) String expand
+    ) {
+        // Validate given ID
+        validatorHelper.validateIdWithError(id, TAG_INVALID_ID);
+        EmployeeView view = getView(fields, expand);
+
+        // Get all managers above the employee with the given ID, starting from the direct manager
+        List<EmployeeResponseBody> employees = employeeService.findChainOfCommand(id, view);
+
+        // Return employee list
+        return new ResponseEntity<>(employees, HttpStatus.OK);
+    }
+
     @PutMapping(value = "/{id}", produces = "application/json", consumes = "application/json")
     @ApiOperation(value = "Update or replace an employee", response = Employee.class)
     @ApiResponses(value = {
@@ -99,14 +226,17 @@ public class EmployeeRoute {
         // Validate PUT body details
         body.validate(messageHelper);
 
-        // Find employee by URL param ID
-        Employee employee = employeeService.put(id, body);
-
         // If PUT body replace is true
         if (body.isReplace()) {
+            // Replace the employee with URL param ID by a new employee
+            Employee employee = employeeService.replace(id, body);
+
             // Return new employee
             return new ResponseEntity<>(employee, HttpStatus.CREATED);
         } else {
+            // Update the employee with URL param ID
+            Employee employee = employeeService.update(id, body);
+
             // Return the employee
             return new ResponseEntity<>(employee, HttpStatus.OK);
         }
@@ -128,4 +258,17 @@ public class EmployeeRoute {
         // Return status
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    // Get the fields and related employees to include, every one of them is included if not given
+    private EmployeeView getView(String fields, String expand) {
+        Set<EmployeeView.Field> viewFields = fields == null ? EnumSet.allOf(EmployeeView.Field.class) : EmployeeView.parseFields(fields);
+        if (viewFields == null)
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.invalid.fields", fields));
+
+        Set<EmployeeView.Relation> viewRelations = expand == null ? EnumSet.allOf(EmployeeView.Relation.class) : EmployeeView.parseRelations(expand);
+        if (viewRelations == null)
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.invalid.expand", expand));
+
+        return new EmployeeView(viewFields, viewRelations);
+    }
 }
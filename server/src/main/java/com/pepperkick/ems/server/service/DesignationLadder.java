@@ -0,0 +1,40 @@
+package com.pepperkick.ems.server.service;
+
+import com.pepperkick.ems.server.entity.Designation;
+
+import java.util.*;
+
+// Immutable view of all designations, indexed by ID, title and level
+public final class DesignationLadder {
+    private final List<Designation> designations;
+    private final Map<Integer, Designation> byId = new HashMap<>();
+    private final Map<String, Designation> byTitle = new HashMap<>();
+    private final Map<Float, List<Designation>> byLevel = new HashMap<>();
+
+    public DesignationLadder(List<Designation> designations) {
+        // Designations are expected to be sorted by level in ascending order
+        this.designations = Collections.unmodifiableList(new ArrayList<>(designations));
+
+        for (Designation designation : this.designations) {
+            byId.put(designation.getId(), designation);
+            byTitle.put(designation.getTitle(), designation);
+            byLevel.computeIfAbsent(designation.getLevel(), key -> new ArrayList<>()).add(designation);
+        }
+    }
+
+    public List<Designation> getDesignations() {
+        return designations;
+    }
+
+    public Designation findById(int id) {
+        return byId.get(id);
+    }
+
+    public Designation findByTitle(String title) {
+        return byTitle.get(title);
+    }
+
+    public List<Designation> findByLevel(float level) {
+        return Collections.unmodifiableList(byLevel.getOrDefault(level, Collections.emptyList()));
+    }
+}
@@ -1,29 +1,47 @@
 package com.pepperkick.ems.server.service;
 
+import com.pepperkick.ems.server.cache.OrgCache;
+import com.pepperkick.ems.server.cache.OrgSnapshot;
 import com.pepperkick.ems.server.repository.DesignationRepository;
 import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.repository.IdGeneratorRepository;
 import com.pepperkick.ems.server.requestbody.DesignationRequestPostBody;
 import com.pepperkick.ems.server.entity.Designation;
-import com.pepperkick.ems.server.entity.Employee;
 import com.pepperkick.ems.server.exception.BadRequestException;
 import com.pepperkick.ems.server.exception.NotFoundException;
+import com.pepperkick.ems.server.retry.RetryOnConflict;
 import com.pepperkick.ems.server.util.MessageHelper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Lookups are read-only, creating and deleting a designation is a single transaction
 @Service
+@Transactional(readOnly = true)
 public class DesignationService {
     private final DesignationRepository designationRepository;
     private final EmployeeRepository employeeRepository;
+    private final OrgCache orgCache;
     private final MessageHelper messageHelper;
+    private final AtomicReference<DesignationLadder> ladder = new AtomicReference<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
 
     @Autowired
-    public DesignationService(DesignationRepository designationRepository, EmployeeRepository employeeRepository, MessageHelper messageHelper) {
+    public DesignationService(DesignationRepository designationRepository, IdGeneratorRepository idGeneratorRepository, EmployeeRepository employeeRepository, OrgCache orgCache, MessageHelper messageHelper) {
         this.designationRepository = designationRepository;
         this.employeeRepository = employeeRepository;
+        this.orgCache = orgCache;
         this.messageHelper = messageHelper;
 
         // Check if designation table is empty, if yes then fill with initial data
@@ -31,14 +49,21 @@ public class DesignationService {
         if (designations.isEmpty()) {
             String[] titles = { "Director", "Manager", "Lead", "Developer", "DevOps", "QA", "Intern" };
             float[] levels = { 1, 2, 3, 4, 4, 4, 5 };
+            List<Designation> defaults = new ArrayList<>();
 
             for (int i = 0; i < titles.length; i++) {
                 Designation designation = new Designation();
                 designation.setTitle(titles[i]);
                 designation.setLevel(levels[i]);
-                designationRepository.save(designation);
+                defaults.add(designation);
             }
+
+            // Save all designations in one transaction so they are inserted as a single batch
+            designationRepository.saveAll(defaults);
         }
+
+        // Move the ID generator past designations that were added without it
+        idGeneratorRepository.reserve(IdGeneratorRepository.DESIGNATION, designationRepository.findMaxId());
     }
 
     // Get designation level that is between two designations
@@ -47,7 +72,7 @@ public class DesignationService {
         Designation highest = higherDesignation;
 
         // Get list of all designations ordered by level
-        List<Designation> designations = designationRepository.findAllByOrderByLevelAsc();
+        List<Designation> designations = getLadder().getDesignations();
 
         // Get index of highest designation in the list
         int index = designations.indexOf(higherDesignation);
@@ -70,6 +95,8 @@ public class DesignationService {
         return flag ? (highest.getLevel() + higherDesignation.getLevel()) / 2 : higherDesignation.getLevel() + 1;
     }
 
+    // Called by the read route, served from the org snapshot without a transaction
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Designation findById(int id) {
         return findById(id, false);
     }
@@ -79,7 +106,7 @@ public class DesignationService {
     }
 
     public Designation findById(int id, boolean badRequest, String tag) {
-        Designation designation = designationRepository.findById(id);
+        Designation designation = getLadder().findById(id);
 
         // If employee is null
         if (designation == null) {
@@ -96,7 +123,7 @@ public class DesignationService {
     }
 
     public Designation findByTitle(String title, boolean badRequest, String tag) {
-        Designation designation = designationRepository.findByTitle(title);
+        Designation designation = getLadder().findByTitle(title);
 
         // If employee is null
         if (designation == null) {
@@ -112,6 +139,9 @@ public class DesignationService {
         return designation;
     }
 
+    @Timed(value = EmployeeService.SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
     public Designation create(DesignationRequestPostBody body) {
         return create(body.getName(), body.getHigher(), body.isEquals());
     }
@@ -120,7 +150,7 @@ public class DesignationService {
         // If POST body has no higher designation
         if (higher == -1) {
             // Find all designations
-            List<Designation> designations = designationRepository.findAll();
+            List<Designation> designations = getLadder().getDesignations();
 
             // If designation list is not empty then return 400 error
             // Higher designation cannot be empty if there are existing designations
@@ -129,7 +159,7 @@ public class DesignationService {
         }
 
         // Find designations with title equal to POST body name
-        Designation nameDesignation = designationRepository.findByTitle(name);
+        Designation nameDesignation = getLadder().findByTitle(name);
 
         // If a designation with the given title is found then return 400
         // Two designations cannot have same title
@@ -157,37 +187,110 @@ public class DesignationService {
                 newDesignation.setLevel(getNewDesignationLevel(higherDesignation));
         }
 
-        // Save the new designation
+        // Save the new designation, flushing right away so a duplicate title is reported here
         try {
-            newDesignation = designationRepository.save(newDesignation);
+            newDesignation = designationRepository.saveAndFlush(newDesignation);
         } catch (DataIntegrityViolationException e) {
             throw new BadRequestException(messageHelper.getMessage("error.route.designation.db.constraint"));
+        } finally {
+            invalidateLadder();
         }
 
+        orgCache.refreshDesignations();
+
         return newDesignation;
     }
 
+    @Timed(value = EmployeeService.SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
     public void deleteById(int id) {
         // Get designation ith the given ID
         Designation designation = findById(id);
 
-        // Find all employees with this designation
-        List<Employee> employees = employeeRepository.findEmployeeByDesignation(designation);
-
-        // If employee list is not empty then return 400
+        // If any employee has this designation then return 400
         // Cannot delete designation while employees have this designation assigned to it
-        if (!employees.isEmpty())
+        // Checked in the database as the cache does not have changes of the current transaction yet
+        if (employeeRepository.existsByDesignation(designation))
             throw new BadRequestException(messageHelper.getMessage("error.route.designation.restriction.cannot_have_employee_assigned"));
 
         // Delete the designation
-        designationRepository.delete(designation);
+        try {
+            designationRepository.delete(designation);
+        } finally {
+            invalidateLadder();
+        }
+
+        orgCache.refreshDesignations();
     }
 
     public Designation getMainDesignation() {
-        List<Designation> designations = designationRepository.findByLevel(1);
+        List<Designation> designations = getLadder().findByLevel(1);
         if (designations.size() == 1)
             return designations.get(0);
 
         return null;
     }
+
+    @Timed(value = EmployeeService.SERVICE_TIMER, histogram = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Designation> findAllByOrderByLevelAsc() {
+        return getLadder().getDesignations();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    // Get all designations from the org snapshot
+    // Transactions that changed designations use the cache instead, loading them from the database if the cache is empty
+    private DesignationLadder getLadder() {
+        OrgSnapshot snapshot = orgCache.get();
+        if (snapshot != null) {
+            cacheHits.incrementAndGet();
+            return snapshot.getLadder();
+        }
+
+        DesignationLadder current = ladder.get();
+        if (current != null) {
+            cacheHits.incrementAndGet();
+            return current;
+        }
+
+        cacheMisses.incrementAndGet();
+        return loadLadder();
+    }
+
+    // Loading and invalidating share a lock so a load that started before a change cannot be stored after it
+    private synchronized DesignationLadder loadLadder() {
+        DesignationLadder current = ladder.get();
+        if (current == null) {
+            current = new DesignationLadder(designationRepository.findAllByOrderByLevelAsc());
+            ladder.set(current);
+        }
+
+        return current;
+    }
+
+    private synchronized void clearLadder() {
+        ladder.set(null);
+    }
+
+    private void invalidateLadder() {
+        clearLadder();
+
+        // If called inside a transaction then clear again once it ends, so designations read before commit or rollback are dropped
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    clearLadder();
+                }
+            });
+        }
+    }
 }
@@ -1,36 +1,85 @@
 package com.pepperkick.ems.server.service;
 
+import com.pepperkick.ems.server.cache.EmployeeCache;
+import com.pepperkick.ems.server.cache.OrgCache;
+import com.pepperkick.ems.server.cache.OrgSnapshot;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
 import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.repository.IdGeneratorRepository;
+import com.pepperkick.ems.server.requestbody.EmployeeRequestBulkItem;
 import com.pepperkick.ems.server.requestbody.EmployeeRequestPostBody;
 import com.pepperkick.ems.server.requestbody.EmployeeRequestPutBody;
+import com.pepperkick.ems.server.responsebody.EmployeeBulkResponseBody;
+import com.pepperkick.ems.server.responsebody.EmployeePage;
+import com.pepperkick.ems.server.responsebody.EmployeeResponseBody;
+import com.pepperkick.ems.server.responsebody.EmployeeView;
 import com.pepperkick.ems.server.entity.Designation;
 import com.pepperkick.ems.server.entity.Employee;
 import com.pepperkick.ems.server.exception.BadRequestException;
 import com.pepperkick.ems.server.exception.NotFoundException;
+import com.pepperkick.ems.server.retry.RetryOnConflict;
 import com.pepperkick.ems.server.util.MessageHelper;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+// Reads share a single read-only transaction and connection per call, changes commit once at the end of the call
 @Service
+@Transactional(readOnly = true)
 public class EmployeeService {
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final int EXPORT_PAGE_SIZE = 500;
+    public static final String SERVICE_TIMER = "ems.service";
     private static final String TAG_SUBORDINATE_CANNOT_HAVE_HIGHER_DESIGNATION = "error.route.employee.restriction.subordinate.cannot_have_higher_designation";
     private final EmployeeRepository employeeRepository;
     private final DesignationService designationService;
     private final MessageHelper messageHelper;
+    private final EmployeeCache employeeCache;
+    private final OrgCache orgCache;
     private Designation mainDesignation;
 
     @Autowired
-    public EmployeeService(EmployeeRepository employeeRepository, @Lazy DesignationService designationService, MessageHelper messageHelper) {
+    public EmployeeService(EmployeeRepository employeeRepository, IdGeneratorRepository idGeneratorRepository, @Lazy DesignationService designationService, MessageHelper messageHelper, EmployeeCache employeeCache, OrgCache orgCache) {
         this.employeeRepository = employeeRepository;
         this.designationService = designationService;
         this.messageHelper = messageHelper;
+        this.employeeCache = employeeCache;
+        this.orgCache = orgCache;
+
+        // Build hierarchy paths of employees that were added without one
+        if (employeeRepository.existsByPathIsNull())
+            rebuildPaths();
+
+        // Copy designation levels to employees that were added without one
+        // Done before the designations are looked up, which loads the org snapshot with the employee levels
+        if (employeeRepository.countStaleLevels() > 0)
+            employeeRepository.syncLevels();
+
+        // Set the sort names of employees that were added without one, also before the snapshot is loaded
+        if (employeeRepository.existsBySortNameIsNull())
+            employeeRepository.syncSortNames();
 
         // Find main designation (Director) for later use
         // Designation with level 1 is assumed main designation
         mainDesignation = designationService.getMainDesignation();
+
+        // Flag the director if it was added without the flag
+        if (mainDesignation != null && !employeeRepository.existsByDirectorTrue())
+            employeeRepository.markDirector(mainDesignation);
+
+        // Move the ID generator past employees that were added without it
+        idGeneratorRepository.reserve(IdGeneratorRepository.EMPLOYEE, employeeRepository.findMaxId());
     }
 
     public Employee findById(int id) {
@@ -59,6 +108,215 @@ public class EmployeeService {
         return employee;
     }
 
+    // Reads of the response bodies are served from the org snapshot without a transaction
+    // They only go to the database when called inside a transaction that has changed employees
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public EmployeeResponseBody findResponseById(int id, EmployeeView view) {
+        OrgSnapshot snapshot = orgCache.get();
+
+        // Find summary of employee with the given ID
+        EmployeeSummary summary = snapshot != null ? snapshot.findById(id) : employeeCache.findById(id);
+
+        if (summary == null)
+            throw new NotFoundException(messageHelper.getMessage("error.route.employee.notfound", id));
+
+        return toResponseBodies(Collections.singletonList(summary), snapshot, view).get(0);
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public EmployeePage findAll(String after, int limit, EmployeeView view) {
+        EmployeeSummary cursor = findCursor(after);
+        List<EmployeeSummary> summaries;
+        List<EmployeeResponseBody> bodies;
+
+        OrgSnapshot snapshot = orgCache.get();
+        if (snapshot != null) {
+            // Return the page of employees from the snapshot, which is already in designation level, sort name and ID order
+            summaries = snapshot.findPage(cursor, limit);
+            bodies = toResponseBodies(summaries, snapshot, view);
+        } else if (cursor == null && limit == -1) {
+            // Without a cursor and a limit return the whole list, which also contains every related employee
+            summaries = employeeRepository.findPage(Pageable.unpaged());
+            bodies = buildResponseBodies(summaries, summaries, view);
+        } else {
+            Pageable pageable = limit == -1 ? Pageable.unpaged() : PageRequest.of(0, limit);
+
+            // Return the first page or the employees that come after the cursor in designation level, sort name and ID order
+            summaries = cursor == null ?
+                employeeRepository.findPage(pageable) :
+                employeeRepository.findPageAfter(cursor.getLevel(), cursor.getSortName(), cursor.getId(), pageable);
+            bodies = toResponseBodies(summaries, null, view);
+        }
+
+        // A full page is followed by the cursor of it's last employee
+        String nextCursor = limit != -1 && summaries.size() == limit ? summaries.get(summaries.size() - 1).toCursor() : null;
+        return new EmployeePage(bodies, nextCursor);
+    }
+
+    // The cursor holds the place of the last employee of the previous page, so it does not matter if that employee still exists
+    private EmployeeSummary findCursor(String after) {
+        if (after == null || after.isEmpty())
+            return null;
+
+        try {
+            return EmployeeSummary.fromCursor(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.invalid.after", after));
+        }
+    }
+
+    // Pass every employee page by page in designation level, sort name and ID order
+    // Each page continues after the last employee of the previous one so only a single page is held at a time
+    // Pages are read in their own short transactions, so no connection is held while the consumer writes to a slow client
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forEachPage(Consumer<List<EmployeeSummary>> consumer) {
+        Pageable pageable = PageRequest.of(0, EXPORT_PAGE_SIZE);
+        List<EmployeeSummary> page = employeeRepository.findPage(pageable);
+
+        while (!page.isEmpty()) {
+            consumer.accept(page);
+
+            if (page.size() < EXPORT_PAGE_SIZE)
+                break;
+
+            EmployeeSummary last = page.get(page.size() - 1);
+            page = employeeRepository.findPageAfter(last.getLevel(), last.getSortName(), last.getId(), pageable);
+        }
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<EmployeeResponseBody> findReports(int id, EmployeeView view) {
+        // Return every employee under the employee in the snapshot
+        OrgSnapshot snapshot = orgCache.get();
+        if (snapshot != null)
+            return toResponseBodies(snapshot.findDescendants(findSummary(id, snapshot).getId()), snapshot, view);
+
+        // Return every employee under the employee's hierarchy path
+        return toResponseBodies(employeeRepository.findDescendants(findPathById(id)), null, view);
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<EmployeeResponseBody> findChainOfCommand(int id, EmployeeView view) {
+        // Return the managers above the employee in the snapshot
+        OrgSnapshot snapshot = orgCache.get();
+        if (snapshot != null)
+            return toResponseBodies(snapshot.findChainOfCommand(findSummary(id, snapshot).getId()), snapshot, view);
+
+        // Get IDs of the managers above the employee, starting from the direct manager
+        List<Integer> ids = new ArrayList<>();
+        String[] parts = findPathById(id).split("/");
+        for (int i = parts.length - 2; i > 0; i--)
+            ids.add(Integer.parseInt(parts[i]));
+
+        if (ids.isEmpty())
+            return new ArrayList<>();
+
+        // Find all managers at once and return them in the order of the chain
+        Map<Integer, EmployeeSummary> managers = new HashMap<>();
+        employeeCache.findByIds(ids).forEach(manager -> managers.put(manager.getId(), manager));
+
+        List<EmployeeSummary> chain = new ArrayList<>();
+        for (Integer managerId : ids)
+            chain.add(managers.get(managerId));
+
+        return toResponseBodies(chain, null, view);
+    }
+
+    private EmployeeSummary findSummary(int id, OrgSnapshot snapshot) {
+        EmployeeSummary summary = snapshot.findById(id);
+
+        if (summary == null)
+            throw new NotFoundException(messageHelper.getMessage("error.route.employee.notfound", id));
+
+        return summary;
+    }
+
+    private String findPathById(int id) {
+        String path = employeeRepository.findPathById(id);
+
+        if (path == null)
+            throw new NotFoundException(messageHelper.getMessage("error.route.employee.notfound", id));
+
+        return path;
+    }
+
+    private List<EmployeeResponseBody> toResponseBodies(List<EmployeeSummary> summaries, OrgSnapshot snapshot, EmployeeView view) {
+        if (summaries.isEmpty())
+            return new ArrayList<>();
+
+        // Related employees are already indexed and sorted in the snapshot
+        if (snapshot != null)
+            return buildResponseBodies(summaries, snapshot::findById, snapshot::findSubordinates, view);
+
+        // Collect IDs of the employees for their subordinates and of their managers for the managers and colleagues
+        boolean withSubordinates = view.has(EmployeeView.Relation.SUBORDINATES) || view.has(EmployeeView.Relation.COLLEAGUES);
+        Set<Integer> ids = new HashSet<>();
+        for (EmployeeSummary summary : summaries) {
+            if (view.has(EmployeeView.Relation.SUBORDINATES))
+                ids.add(summary.getId());
+            if (summary.getManagerId() != null && (view.has(EmployeeView.Relation.MANAGER) || view.has(EmployeeView.Relation.COLLEAGUES)))
+                ids.add(summary.getManagerId());
+        }
+
+        // Nothing to find if the view has no related employees
+        if (ids.isEmpty())
+            return buildResponseBodies(summaries, Collections.emptyList(), view);
+
+        // Find the managers alone or along with the subordinates of employees and managers in a single query
+        List<EmployeeSummary> related = withSubordinates ? employeeCache.findWithSubordinatesByIds(ids) : employeeCache.findByIds(ids);
+        return buildResponseBodies(summaries, related, view);
+    }
+
+    private List<EmployeeResponseBody> buildResponseBodies(List<EmployeeSummary> summaries, List<EmployeeSummary> related, EmployeeView view) {
+        // Index related employees by ID and group them by manager in designation level and name order
+        Map<Integer, EmployeeSummary> byId = new HashMap<>();
+        Map<Integer, List<EmployeeSummary>> byManagerId = new HashMap<>();
+        for (EmployeeSummary summary : related) {
+            byId.put(summary.getId(), summary);
+            if (summary.getManagerId() != null)
+                byManagerId.computeIfAbsent(summary.getManagerId(), key -> new ArrayList<>()).add(summary);
+        }
+        byManagerId.values().forEach(Collections::sort);
+
+        return buildResponseBodies(summaries, byId::get, id -> byManagerId.getOrDefault(id, Collections.emptyList()), view);
+    }
+
+    private List<EmployeeResponseBody> buildResponseBodies(List<EmployeeSummary> summaries, Function<Integer, EmployeeSummary> findById, Function<Integer, List<EmployeeSummary>> findSubordinates, EmployeeView view) {
+        List<EmployeeResponseBody> bodies = new ArrayList<>(summaries.size());
+        for (EmployeeSummary summary : summaries) {
+            EmployeeResponseBody body = new EmployeeResponseBody(summary, view);
+
+            if (summary.getManagerId() != null && view.has(EmployeeView.Relation.MANAGER))
+                body.setManager(new EmployeeResponseBody(findById.apply(summary.getManagerId()), view));
+
+            if (summary.getManagerId() != null && view.has(EmployeeView.Relation.COLLEAGUES)) {
+                List<EmployeeResponseBody> colleagues = new ArrayList<>();
+                for (EmployeeSummary colleague : findSubordinates.apply(summary.getManagerId()))
+                    if (!colleague.getId().equals(summary.getId()))
+                        colleagues.add(new EmployeeResponseBody(colleague, view));
+                body.setColleagues(colleagues);
+            }
+
+            if (view.has(EmployeeView.Relation.SUBORDINATES)) {
+                List<EmployeeResponseBody> subordinates = new ArrayList<>();
+                for (EmployeeSummary subordinate : findSubordinates.apply(summary.getId()))
+                    subordinates.add(new EmployeeResponseBody(subordinate, view));
+                body.setSubordinates(subordinates);
+            }
+
+            bodies.add(body);
+        }
+
+        return bodies;
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
     public Employee create(EmployeeRequestPostBody body) {
         return create(body.getName(), body.getJobTitle(), body.getManagerId(), true);
     }
@@ -72,11 +330,9 @@ public class EmployeeService {
         // If designation equals to main designation
         if (designation.equals(mainDesignation)) {
             if (save) {
-                List<Employee> employees = employeeRepository.findEmployeeByDesignation(mainDesignation);
-
-                // If employee list with main designation is not empty then return 400
-                // Cannot have more than one director
-                if (!employees.isEmpty())
+                // If an employee with main designation already exists then return 400
+                // Cannot have more than one director, checked in the database as the cache does not have uncommitted changes yet
+                if (employeeRepository.existsByDirectorTrue())
                     throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.single"));
             }
 
@@ -111,19 +367,113 @@ public class EmployeeService {
         // Create new employee
         Employee employee = new Employee();
         employee.setName(name);
-        employee.setDesignation(designation);
+        setDesignation(employee, designation);
         employee.setManager(manager);
 
-        return save ? employeeRepository.save(employee) : employee;
+        return save ? saveNew(employee) : employee;
     }
 
-    public Employee put(int id, EmployeeRequestPutBody body) {
-        Employee employee = findById(id);
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
+    public List<EmployeeBulkResponseBody> createAll(List<EmployeeRequestBulkItem> items) {
+        checkMainDesignation();
+
+        // Find designations of all employees, the designation ladder is cached so no query is made per employee
+        Map<String, Designation> designations = new HashMap<>();
+        Set<Integer> managerIds = new HashSet<>();
+        boolean hasDirector = false;
+        for (EmployeeRequestBulkItem item : items) {
+            Designation designation = designationService.findByTitle(item.getJobTitle(), true, "error.route.employee.notfound.designation");
+            designations.put(item.getRef(), designation);
 
-        if (body.isReplace())
-            return replace(employee, body.getName(), body.getJobTitle(), body.getManagerId());
-        else
-            return update(employee, body.getName(), body.getJobTitle(), body.getManagerId());
+            if (designation.equals(mainDesignation)) {
+                // If an employee with main designation already exists or is added twice then return 400
+                // Cannot have more than one director
+                if (hasDirector || employeeRepository.existsByDirectorTrue())
+                    throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.single"));
+                hasDirector = true;
+
+                // Employee with main designation (Director) cannot have a manager
+                if (item.hasManager())
+                    throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.cannot_have_manager"));
+            } else if (!item.hasManager()) {
+                // Only director cannot have manager
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.can_only_have_no_manager"));
+            }
+
+            if (item.getManagerId() != -1)
+                managerIds.add(item.getManagerId());
+        }
+
+        // Find and lock all existing managers at once, their paths are copied to the new employees
+        Map<Integer, Employee> managers = new HashMap<>();
+        if (!managerIds.isEmpty())
+            employeeRepository.lockAllByIds(managerIds).forEach(manager -> managers.put(manager.getId(), manager));
+
+        for (EmployeeRequestBulkItem item : items) {
+            Designation designation = designations.get(item.getRef());
+            Designation managerDesignation;
+
+            if (item.getManagerId() != -1) {
+                Employee manager = managers.get(item.getManagerId());
+                if (manager == null)
+                    throw new BadRequestException(messageHelper.getMessage("error.route.employee.notfound.manager", item.getManagerId()));
+
+                managerDesignation = manager.getDesignation();
+            } else if (item.getManagerRef() != null) {
+                managerDesignation = designations.get(item.getManagerRef());
+            } else {
+                continue;
+            }
+
+            // Manager's designation level cannot be lower than or equal to it's subordinates
+            if (managerDesignation.compareByLevel(designation) >= 0)
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.manager.cannot_have_lower_designation", designation.getTitle(), managerDesignation.getTitle()));
+        }
+
+        // Managers always have a lower designation level than their subordinates
+        // so saving in designation level order saves every manager before it's subordinates
+        List<EmployeeRequestBulkItem> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparing(item -> designations.get(item.getRef()).getLevel()));
+
+        Map<String, Employee> created = new HashMap<>();
+        for (EmployeeRequestBulkItem item : ordered) {
+            Employee employee = new Employee();
+            employee.setName(item.getName());
+            setDesignation(employee, designations.get(item.getRef()));
+            employee.setManager(item.getManagerRef() != null ? created.get(item.getManagerRef()) : managers.get(item.getManagerId()));
+
+            // Paths are set on the managed employees and written as batched updates after the batched inserts
+            employee = insert(employee);
+            employee.setPath(createPath(employee.getManager(), employee));
+
+            created.put(item.getRef(), employee);
+        }
+
+        List<EmployeeBulkResponseBody> bodies = new ArrayList<>(items.size());
+        for (EmployeeRequestBulkItem item : items)
+            bodies.add(new EmployeeBulkResponseBody(item.getRef(), created.get(item.getRef()).getId()));
+
+        List<Integer> ids = bodies.stream().map(EmployeeBulkResponseBody::getId).collect(Collectors.toList());
+        employeeCache.refresh(ids);
+        orgCache.refreshEmployees(ids);
+
+        return bodies;
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
+    public Employee update(int id, EmployeeRequestPutBody body) {
+        return update(findById(id), body.getName(), body.getJobTitle(), body.getManagerId());
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
+    public Employee replace(int id, EmployeeRequestPutBody body) {
+        return replace(findById(id), body.getName(), body.getJobTitle(), body.getManagerId());
     }
 
     public Employee update(Employee employee, String title, String jobTitle, int managerId) {
@@ -144,6 +494,9 @@ public class EmployeeService {
 
                 if (managerId != -1)
                     throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.cannot_have_manager"));
+            } else if (designation.equals(mainDesignation)) {
+                // Cannot have more than one director
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.single"));
             }
 
             // Check if designation is lower than any designation of subordinate
@@ -151,7 +504,7 @@ public class EmployeeService {
                 throw new BadRequestException(messageHelper.getMessage(TAG_SUBORDINATE_CANNOT_HAVE_HIGHER_DESIGNATION, jobTitle));
 
             // Update employee designation
-            employee.setDesignation(designation);
+            setDesignation(employee, designation);
         }
 
         if (managerId != -1) {
@@ -163,12 +516,27 @@ public class EmployeeService {
             if (manager.getDesignation().compareByLevel(employee.getDesignation()) >= 0)
                 throw new BadRequestException(messageHelper.getMessage(TAG_SUBORDINATE_CANNOT_HAVE_HIGHER_DESIGNATION, jobTitle));
 
-            // Update employee manager
+            // Update employee manager, it's path is copied to the employee
+            lockManager(manager);
             employee.setManager(manager);
         }
 
+        // If the manager has changed then move the employee with it's subordinates under the new manager
+        String oldPath = employee.getPath();
+        employee.setPath(createPath(employee.getManager(), employee));
+
         // Save updated employee
-        return employeeRepository.save(employee);
+        employee = employeeRepository.save(employee);
+
+        employeeCache.refresh(employee.getId());
+        orgCache.refreshEmployees(employee.getId());
+
+        if (!employee.getPath().equals(oldPath)) {
+            employeeRepository.movePath(oldPath, employee.getPath(), oldPath.length() + 1);
+            return findById(employee.getId());
+        }
+
+        return employee;
     }
 
     public Employee replace(Employee employee, String name, String jobTitle, int managerId) {
@@ -184,76 +552,162 @@ public class EmployeeService {
         if (isDesignationHigherOrLowerThanSubordinateDesignation(newEmployee.getDesignation(), employee, true))
             throw new BadRequestException(messageHelper.getMessage(TAG_SUBORDINATE_CANNOT_HAVE_HIGHER_DESIGNATION, jobTitle));
 
+        List<Integer> ids = getIds(employee);
+
+        // Remove the director flag first so the new director can be saved
+        if (employee.isDirector())
+            employeeRepository.clearDirector(employee.getId());
+
         // Replace employee
-        newEmployee = employeeRepository.save(newEmployee);
+        newEmployee = saveNew(newEmployee);
         changeManagerOfSubordinates(employee, newEmployee);
-        employeeRepository.delete(employee);
+        employeeRepository.deleteById(employee.getId());
+
+        // Move old employee's subordinates under the new employee's hierarchy path
+        employeeRepository.movePath(employee.getPath(), newEmployee.getPath(), employee.getPath().length() + 1);
+
+        employeeCache.refresh(ids);
+        orgCache.refreshEmployees(ids);
 
-        return newEmployee;
+        return findById(newEmployee.getId());
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional
+    @RetryOnConflict
     public void deleteById(int id) {
         checkMainDesignation();
 
         // Get employee ith the given ID
         Employee employee = findById(id);
+        List<Integer> ids = getIds(employee);
+        boolean hasSubordinates = ids.size() > 1;
 
         // IF employee's designation is equal to main designation (Director) then return 400
         // Cannot delete employee with main designation (Director
-        if (employee.getDesignation().equals(mainDesignation) && !employee.getSubordinates().isEmpty())
+        if (employee.getDesignation().equals(mainDesignation) && hasSubordinates)
             throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.subordinates_not_empty"));
 
         // If employee subordinates list is not empty
-        if (!employee.getSubordinates().isEmpty()) {
-            // Get employee with ID equal to current employee's manager ID
-            Employee manager = employee.getManager();
-
-            // Change manager of each subordinate of current employee with current employee's manager
-            employee.getSubordinates().forEach(object -> {
-                object.setManager(manager);
-                employeeRepository.save(object);
-            });
-        }
+        // Change manager of each subordinate of current employee with current employee's manager
+        if (hasSubordinates)
+            changeManagerOfSubordinates(employee, employee.getManager());
 
         // Delete employee
-        employeeRepository.delete(employee);
+        employeeRepository.deleteById(employee.getId());
+
+        // Move subordinates of deleted employee under the manager's hierarchy path
+        if (hasSubordinates)
+            employeeRepository.movePath(employee.getPath(), createPath(employee.getManager()), employee.getPath().length() + 1);
+
+        employeeCache.refresh(ids);
+        orgCache.refreshEmployees(ids);
     }
 
     public boolean isDesignationHigherOrLowerThanSubordinateDesignation(Designation designation, Employee employee, boolean isHigher) {
-        // If employee's subordinates list is not empty
-        if (!employee.getSubordinates().isEmpty()) {
-            // Get current employee's designation
-            Designation highest = getHighestOrLowestSubordinateDesignation(employee, isHigher);
-
-            // If current designation level is lower then highest subordinate designation level then return 400
-            // Employee designation cannot be lower than it's subordinates
-            return isHigher ? designation.compareByLevel(highest) >= 0 : designation.compareByLevel(highest) <= 0;
-        }
+        // Get the highest or lowest designation level of the employee's subordinates
+        Float level = getHighestOrLowestSubordinateLevel(employee, isHigher);
+
+        // If employee's subordinates list is empty
+        if (level == null)
+            return false;
 
-        return false;
+        // If current designation level is lower then highest subordinate designation level then return 400
+        // Employee designation cannot be lower than it's subordinates
+        return isHigher ? Float.compare(designation.getLevel(), level) >= 0 : Float.compare(designation.getLevel(), level) <= 0;
     }
 
-    public Designation getHighestOrLowestSubordinateDesignation(Employee employee, boolean isHighest) {
-        // Get current employee's designation
-        Designation compare = employee.getSubordinates().first().getDesignation();
+    // Aggregated in the database so the check does not depend on the number of subordinates
+    public Float getHighestOrLowestSubordinateLevel(Employee employee, boolean isHighest) {
+        return isHighest ?
+            employeeRepository.findHighestSubordinateLevel(employee) :
+            employeeRepository.findLowestSubordinateLevel(employee);
+    }
+
+    public void changeManagerOfSubordinates(Employee employee, Employee manager) {
+        // Change manager of old employee's subordinates in a single statement
+        employeeRepository.changeManager(employee, manager);
+    }
 
-        // Check designation of each subordinate
-        for (Employee sub : employee.getSubordinates()) {
-            if (isHighest && compare.compareByLevel(sub.getDesignation()) > 0)
-                compare = sub.getDesignation();
-            if (!isHighest && compare.compareByLevel(sub.getDesignation()) < 0)
-                compare = sub.getDesignation();
+    private Employee saveNew(Employee employee) {
+        // Lock the manager first, the query would flush the new employee before it's path is set
+        lockManager(employee.getManager());
+
+        // Save the new employee to get it's ID
+        employee = insert(employee);
+
+        // Set the hierarchy path of the new employee under it's manager, it is written when the transaction is flushed
+        employee.setPath(createPath(employee.getManager(), employee));
+
+        employeeCache.refresh(employee.getId());
+        orgCache.refreshEmployees(employee.getId());
+
+        return employee;
+    }
+
+    private Employee insert(Employee employee) {
+        try {
+            // IDs are allocated without an insert, so other employees are written in batches when the transaction is flushed
+            // The director is flushed right away so a second director is reported here
+            return employee.isDirector() ? employeeRepository.saveAndFlush(employee) : employeeRepository.save(employee);
+        } catch (DataIntegrityViolationException e) {
+            // Another director was saved after the single director check
+            if (employee.isDirector())
+                throw new BadRequestException(messageHelper.getMessage("error.route.employee.restriction.director.single"));
+
+            throw new BadRequestException(messageHelper.getMessage("error.route.employee.db.constraint"));
         }
+    }
 
-        return compare;
+    // Only the director has the flag set, so the database can enforce a single director
+    private void setDesignation(Employee employee, Designation designation) {
+        employee.setDesignation(designation);
+        employee.setDirector(designation.equals(mainDesignation));
     }
 
-    public void changeManagerOfSubordinates(Employee employee, Employee manager) {
-        // Change manager of old employee's subordinates
-        for (Employee subordinate : employee.getSubordinates()) {
-            subordinate.setManager(manager);
-            employeeRepository.save(subordinate);
+    // Get IDs of the employee and it's subordinates
+    private List<Integer> getIds(Employee employee) {
+        List<Integer> ids = new ArrayList<>(employeeRepository.findSubordinateIds(employee));
+        ids.add(0, employee.getId());
+
+        return ids;
+    }
+
+    // Lock the manager before it's path is copied, so it cannot be moved until this transaction commits
+    // A manager that was moved after it was loaded fails the version check and the change is retried with the new path
+    private void lockManager(Employee manager) {
+        if (manager != null)
+            employeeRepository.lockAllByIds(Collections.singleton(manager.getId()));
+    }
+
+    private String createPath(Employee manager) {
+        return manager != null ? manager.getPath() : "/";
+    }
+
+    private String createPath(Employee manager, Employee employee) {
+        return createPath(manager) + employee.getId() + "/";
+    }
+
+    private void rebuildPaths() {
+        // Find all employees and create the path of each one from it's chain of command
+        List<Employee> employees = employeeRepository.findAll();
+        Map<Integer, String> paths = new HashMap<>();
+
+        for (Employee employee : employees)
+            employee.setPath(rebuildPath(employee, paths));
+
+        employeeRepository.saveAll(employees);
+    }
+
+    private String rebuildPath(Employee employee, Map<Integer, String> paths) {
+        String path = paths.get(employee.getId());
+
+        if (path == null) {
+            path = (employee.getManager() != null ? rebuildPath(employee.getManager(), paths) : "/") + employee.getId() + "/";
+            paths.put(employee.getId(), path);
         }
+
+        return path;
     }
 
     public void checkMainDesignation() {
@@ -1,6 +1,7 @@
 package com.pepperkick.ems.server.util;
 
 import com.pepperkick.ems.server.exception.BadRequestException;
+import com.pepperkick.ems.server.exception.ConflictException;
 import com.pepperkick.ems.server.exception.NotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,4 +19,9 @@ public class ExceptionHelper {
     public ResponseEntity notFoundException(NotFoundException exception) {
         return ResponseHelper.createErrorResponseEntity(exception.getMessage(), HttpStatus.NOT_FOUND);
     }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity conflictException(ConflictException exception) {
+        return ResponseHelper.createErrorResponseEntity(exception.getMessage(), HttpStatus.CONFLICT);
+    }
 }
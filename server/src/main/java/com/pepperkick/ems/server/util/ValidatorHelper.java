@@ -1,12 +1,30 @@
 package com.pepperkick.ems.server.util;
 
 import com.pepperkick.ems.server.exception.BadRequestException;
-import com.pepperkick.ems.server.exception.ValidationError;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
 
+@Component
 public class ValidatorHelper {
+    public static final int NAME_MIN_LENGTH = 2;
+    public static final int NAME_MAX_LENGTH = 30;
+
+    public enum NameError {
+        EMPTY("empty.param.name"),
+        INVALID("param.name.invalid"),
+        TOO_LONG("param.name.too_long"),
+        TOO_SHORT("param.name.too_short");
+
+        private final String tag;
+
+        NameError(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag(String prefix) {
+            return prefix + "." + tag;
+        }
+    }
+
     private final MessageHelper messageHelper;
 
     public ValidatorHelper(MessageHelper messageHelper) {
@@ -14,37 +32,31 @@ public class ValidatorHelper {
     }
 
     public void validateIdWithError(int id, String tag) {
-        try {
-            validateId(id);
-        } catch (ValidationError e) {
+        if (id < 0)
             throw new BadRequestException(
                 messageHelper.getMessage(tag, id)
             );
-        }
     }
 
-    private static void validateId(int id) {
-        if (id < 0)
-            throw new ValidationError("id", "negative");
-    }
-
-    public static void validateName(String name) {
-        if (name == null)
-            throw new ValidationError("name", "null");
+    // Check the name, returning null when it is valid
+    public static NameError checkName(String name) {
+        if (name == null || name.isEmpty())
+            return NameError.EMPTY;
 
-        if (name.compareTo("") == 0)
-            throw new ValidationError("name", "empty");
+        if (name.length() > NAME_MAX_LENGTH)
+            return NameError.TOO_LONG;
 
-        if (name.length() > 30)
-            throw new ValidationError("name", "tooLong");
+        if (name.length() < NAME_MIN_LENGTH)
+            return NameError.TOO_SHORT;
 
-        if (name.length() < 2)
-            throw new ValidationError("name", "tooShort");
+        // Only latin letters and spaces are allowed
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
 
-        Pattern regex = Pattern.compile("[^a-z ]", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = regex.matcher(name);
+            if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && c != ' ')
+                return NameError.INVALID;
+        }
 
-        if (matcher.find())
-            throw new ValidationError("name", "invalid");
+        return null;
     }
 }
@@ -0,0 +1,132 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.config.IgniteCacheConfiguration;
+import com.pepperkick.ems.server.entity.Designation;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import com.pepperkick.ems.server.service.EmployeeService;
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs against an embedded single node Ignite with it's own in memory database
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, classes = { Application.class, H2Configuration.class }, properties = {
+        "USE_IGNITE=true",
+        "spring.datasource.url=jdbc:h2:mem:ignite"
+})
+public class EmployeeCacheTests extends AbstractTestNGSpringContextTests {
+    @Autowired
+    private Ignite ignite;
+
+    @Autowired
+    private EmployeeCache employeeCache;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OrgVersion orgVersion;
+
+    // Check if the embedded node has started
+    @Test
+    public void isCacheEnabled() {
+        assertThat(ignite).isNotNull();
+        assertThat(employeeCache.isEnabled()).isTrue();
+    }
+
+    // Should read the employee through the cache from the database
+    @Test
+    public void shouldReadEmployeeThrough() {
+        IgniteCache<Integer, EmployeeSummary> cache = ignite.cache(IgniteCacheConfiguration.EMPLOYEE_CACHE);
+
+        EmployeeSummary summary = employeeCache.findById(7);
+
+        assertThat(summary.getName()).isEqualTo("Falcon");
+        assertThat(cache.containsKey(7)).isTrue();
+        assertThat(employeeCache.findById(100)).isNull();
+    }
+
+    // Should put the updated employee into the cache
+    @Test
+    public void shouldRefreshEmployeeOnUpdate() {
+        employeeCache.findById(6);
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Employee employee = employeeService.findById(6);
+            return employeeService.update(employee, "White Vision", null, -1);
+        });
+
+        IgniteCache<Integer, EmployeeSummary> cache = ignite.cache(IgniteCacheConfiguration.EMPLOYEE_CACHE);
+        assertThat(cache.get(6).getName()).isEqualTo("White Vision");
+    }
+
+    // Should remove the deleted employee from the cache and update it's subordinates
+    @Test
+    public void shouldRefreshEmployeesOnDelete() {
+        employeeCache.findById(3);
+        employeeCache.findById(10);
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            employeeService.deleteById(3);
+            return null;
+        });
+
+        IgniteCache<Integer, EmployeeSummary> cache = ignite.cache(IgniteCacheConfiguration.EMPLOYEE_CACHE);
+        assertThat(cache.containsKey(3)).isFalse();
+        assertThat(cache.get(10).getManagerId()).isEqualTo(1);
+    }
+
+    // Should change the org version shared through Ignite only once the change is committed
+    @Test
+    public void shouldIncrementOrgVersionAfterCommit() {
+        long version = orgVersion.get();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Employee employee = employeeService.findById(9);
+            employeeService.update(employee, "Spider Boy", null, -1);
+
+            assertThat(orgVersion.get()).isEqualTo(version);
+            return null;
+        });
+
+        assertThat(orgVersion.get()).isGreaterThan(version);
+        assertThat(ignite.atomicLong(OrgVersion.ORG_VERSION, 0, false).get()).isEqualTo(orgVersion.get());
+    }
+
+    // Should find the employee along with it's subordinates through the SQL query
+    @Test
+    public void shouldFindSubordinatesThroughQuery() {
+        List<EmployeeSummary> summaries = employeeCache.findWithSubordinatesByIds(Collections.singletonList(4));
+
+        assertThat(summaries.stream().map(EmployeeSummary::getId).collect(Collectors.toList())).containsExactlyInAnyOrder(4, 7, 8);
+    }
+
+    // Should check if any employee has the designation through the SQL query
+    @Test
+    public void shouldCheckDesignationThroughQuery() {
+        Designation director = new Designation();
+        director.setId(1);
+
+        Designation unknown = new Designation();
+        unknown.setId(100);
+
+        assertThat(employeeCache.existsByDesignation(director)).isTrue();
+        assertThat(employeeCache.existsByDesignation(unknown)).isFalse();
+    }
+}
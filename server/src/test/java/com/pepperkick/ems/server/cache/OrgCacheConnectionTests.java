@@ -0,0 +1,70 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.responsebody.EmployeeView;
+import com.pepperkick.ems.server.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs with a single connection, the snapshot must never need a second one while a transaction holds it
+// Otherwise transactions holding every connection of the pool wait for each other until the pool times out
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, classes = { Application.class, H2Configuration.class }, properties = {
+        "spring.datasource.url=jdbc:h2:mem:connection",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+public class OrgCacheConnectionTests extends AbstractTestNGSpringContextTests {
+    @Autowired
+    private OrgCache orgCache;
+
+    @Autowired
+    private OrgVersion orgVersion;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Should copy the change into the snapshot with the connection of the committed transaction
+    @Test
+    public void shouldCopySnapshotWithSingleConnection() {
+        OrgSnapshot before = orgCache.get();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Employee employee = employeeService.findById(6);
+            return employeeService.update(employee, "White Vision", null, -1);
+        });
+
+        // A snapshot that was loaded again would not share the subordinates of managers that did not change
+        OrgSnapshot after = orgCache.get();
+        assertThat(after.findById(6).getName()).isEqualTo("White Vision");
+        assertThat(after.findSubordinates(4)).isSameAs(before.findSubordinates(4));
+    }
+
+    // Should read from the database inside of a transaction when the snapshot would have to be loaded
+    // and load it again with the next read outside of a transaction
+    @Test
+    public void shouldNotLoadSnapshotInsideTransaction() {
+        OrgSnapshot before = orgCache.get();
+
+        // Same as a change on another node
+        orgVersion.increment();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            assertThat(orgCache.get()).isNull();
+            assertThat(employeeService.findResponseById(1, EmployeeView.FULL).getName()).isEqualTo("Thor");
+            return null;
+        });
+
+        assertThat(orgCache.get()).isNotSameAs(before);
+    }
+}
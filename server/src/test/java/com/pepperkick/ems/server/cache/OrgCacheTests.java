@@ -0,0 +1,192 @@
+package com.pepperkick.ems.server.cache;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.projection.EmployeeSummary;
+import com.pepperkick.ems.server.repository.DesignationRepository;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.service.DesignationService;
+import com.pepperkick.ems.server.service.EmployeeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Changes are committed to it's own in memory database so the snapshot is updated
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, classes = { Application.class, H2Configuration.class }, properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot"
+})
+public class OrgCacheTests extends AbstractTestNGSpringContextTests {
+    @Autowired
+    private OrgCache orgCache;
+
+    @Autowired
+    private OrgVersion orgVersion;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DesignationService designationService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Should serve the same snapshot without any SQL statement once it is loaded
+    @Test
+    public void shouldServeSnapshotWithoutStatements() {
+        OrgSnapshot snapshot = orgCache.get();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        assertThat(orgCache.get()).isSameAs(snapshot);
+        assertThat(ids(snapshot.findPage(null, 3))).containsExactly(1, 4, 2);
+        assertThat(ids(snapshot.findSubordinates(4))).contains(7);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    // Should publish a copy of the snapshot with the change once it is committed, leaving the old snapshot as it was
+    @Test
+    public void shouldCopySnapshotOnCommit() {
+        OrgSnapshot before = orgCache.get();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Employee employee = employeeService.findById(9);
+            employeeService.update(employee, "Spider Boy", null, -1);
+
+            // The transaction reads it's own change from the database
+            assertThat(orgCache.get()).isNull();
+            return null;
+        });
+
+        OrgSnapshot after = orgCache.get();
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.getVersion()).isEqualTo(orgVersion.get());
+        assertThat(before.findById(9).getName()).isEqualTo("Spider Man");
+        assertThat(after.findById(9).getName()).isEqualTo("Spider Boy");
+
+        // Subordinates of managers that did not change are shared with the old snapshot
+        assertThat(after.findSubordinates(4)).isSameAs(before.findSubordinates(4));
+        assertThat(after.getLadder()).isSameAs(before.getLadder());
+    }
+
+    // Should move the employee to the subordinates of it's new manager in designation level and name order
+    @Test
+    public void shouldMoveEmployeeOnCommit() {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Employee employee = employeeService.findById(8);
+            return employeeService.update(employee, null, null, 2);
+        });
+
+        OrgSnapshot snapshot = orgCache.get();
+        assertThat(ids(snapshot.findSubordinates(4))).doesNotContain(8);
+        assertThat(snapshot.findSubordinates(2)).isSorted();
+        assertThat(ids(snapshot.findSubordinates(2))).contains(8);
+        assertThat(ids(snapshot.findChainOfCommand(8))).containsExactly(2, 1);
+        assertThat(ids(snapshot.findDescendants(2))).contains(8);
+    }
+
+    // Should order the snapshot the same as the database does, with names compared regardless of their case
+    @Test
+    public void shouldOrderSnapshotLikeDatabase() {
+        new TransactionTemplate(transactionManager).execute(status -> employeeService.create("bucky Barnes", "Developer", 3, true));
+
+        List<EmployeeSummary> page = orgCache.get().findPage(null, -1);
+        assertThat(ids(page)).isEqualTo(ids(employeeRepository.findPage(Pageable.unpaged())));
+        assertThat(page).extracting(EmployeeSummary::getName).containsSubsequence("Black Widow", "bucky Barnes", "Falcon");
+    }
+
+    // Should keep the snapshot and the version when the change is rolled back
+    @Test
+    public void shouldKeepSnapshotOnRollback() {
+        OrgSnapshot before = orgCache.get();
+        long version = orgVersion.get();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Employee employee = employeeService.findById(6);
+            employeeService.update(employee, "White Vision", null, -1);
+
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(orgVersion.get()).isEqualTo(version);
+        assertThat(orgCache.get()).isSameAs(before);
+        assertThat(before.findById(6).getName()).isEqualTo("Vision");
+    }
+
+    // Should publish the new designation while sharing the employees with the old snapshot
+    @Test
+    public void shouldRefreshDesignationsOnCommit() {
+        OrgSnapshot before = orgCache.get();
+
+        new TransactionTemplate(transactionManager).execute(status -> designationService.create("Architect", 3, false));
+
+        OrgSnapshot after = orgCache.get();
+        assertThat(before.getLadder().findByTitle("Architect")).isNull();
+        assertThat(after.getLadder().findByTitle("Architect")).isNotNull();
+        assertThat(after.findSubordinates(1)).isSameAs(before.findSubordinates(1));
+    }
+
+    // Should not fail the committed change when the snapshot cannot be updated, the next read loads it again instead
+    @Test
+    public void shouldLoadSnapshotAgainWhenUpdateFails() {
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        DesignationRepository designationRepository = mock(DesignationRepository.class);
+        OrgVersion version = new OrgVersion(mock(ObjectProvider.class), true);
+        OrgCache cache = new OrgCache(employeeRepository, designationRepository, version, mock(PlatformTransactionManager.class));
+
+        when(employeeRepository.findPage(any())).thenReturn(Collections.emptyList());
+        when(employeeRepository.findSummariesByIds(any())).thenThrow(new QueryTimeoutException("Timeout"));
+        OrgSnapshot before = cache.get();
+        long current = version.get();
+
+        cache.refreshEmployees(1);
+
+        assertThat(version.get()).isGreaterThan(current);
+        assertThat(cache.get()).isNotSameAs(before);
+        verify(employeeRepository, times(2)).findPage(any());
+    }
+
+    // Should read from the database when the org version is not shared, a change on another instance would never reach the snapshot
+    @Test
+    public void shouldNotServeSnapshotWithoutSharedVersion() {
+        EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+        DesignationRepository designationRepository = mock(DesignationRepository.class);
+        OrgVersion version = new OrgVersion(mock(ObjectProvider.class), false);
+        OrgCache cache = new OrgCache(employeeRepository, designationRepository, version, mock(PlatformTransactionManager.class));
+
+        assertThat(cache.get()).isNull();
+        assertThat(new EtagInterceptor(version).preHandle(new MockHttpServletRequest("GET", "/api/v1/employees"), new MockHttpServletResponse(), null)).isTrue();
+        verifyZeroInteractions(employeeRepository, designationRepository);
+    }
+
+    private List<Integer> ids(List<EmployeeSummary> summaries) {
+        return summaries.stream().map(EmployeeSummary::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,145 @@
+package com.pepperkick.ems.server.datasource;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Two H2 databases stand in for the primary and the replica, replication is done by hand
+@AutoConfigureMockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = { Application.class, H2Configuration.class }, properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing",
+    "ems.datasource.replica.url=" + ReplicaRoutingTests.REPLICA_URL,
+    "ems.datasource.replica.lag-query=SELECT SECONDS FROM REPLICA_LAG",
+    "ems.datasource.replica.max-lag-seconds=5",
+    "ems.datasource.replica.check-interval-ms=3600000"
+})
+public class ReplicaRoutingTests extends AbstractTestNGSpringContextTests {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaMonitor replicaMonitor;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeClass
+    public void replicate() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "sa"));
+
+        // Copy the primary to the replica, then change a name on the replica only to tell them apart
+        primary.execute("SCRIPT TO 'target/routing-primary.sql'");
+        replica.execute("RUNSCRIPT FROM 'target/routing-primary.sql'");
+        replica.update("UPDATE EMPLOYEE SET NAME = 'Replica Man' WHERE ID = 2");
+        replica.execute("CREATE TABLE REPLICA_LAG (SECONDS INT)");
+        replica.update("INSERT INTO REPLICA_LAG VALUES (0)");
+    }
+
+    // Should not use the replica before it has been checked
+    @Test
+    public void shouldStartWithReplicaUnavailable() {
+        assertThat(new ReplicaMonitor(new DriverManagerDataSource(REPLICA_URL, "sa", "sa"), "", 5).isAvailable()).isFalse();
+    }
+
+    // Should read from the replica in read-only transactions while it is in sync
+    @Test
+    public void shouldReadFromReplica() {
+        setLag(0);
+        assertThat(replicaMonitor.isAvailable()).isTrue();
+
+        assertThat(readName(2)).isEqualTo("Replica Man");
+    }
+
+    // Should serve the read routes from the org snapshot, which is always loaded from the primary
+    @Test
+    public void shouldServeRoutesFromPrimary() throws Exception {
+        setLag(0);
+
+        mockMvc.
+            perform(get("/api/v1/employees/2").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.name").value("Iron Man"));
+        mockMvc.
+            perform(get("/api/v1/designations").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+    }
+
+    // Should fall back to the primary when the replica lags too far behind
+    @Test
+    public void shouldReadFromPrimaryWhenReplicaLags() throws Exception {
+        setLag(60);
+        assertThat(replicaMonitor.isAvailable()).isFalse();
+        assertThat(replicaMonitor.getLagSeconds()).isEqualTo(60);
+
+        assertThat(readName(2)).isEqualTo("Iron Man");
+    }
+
+    // Should fall back to the primary when the lag of the replica is unknown
+    @Test
+    public void shouldReadFromPrimaryWhenReplicaIsNotReplicating() throws Exception {
+        replica.update("UPDATE REPLICA_LAG SET SECONDS = NULL");
+        replicaMonitor.check();
+        assertThat(replicaMonitor.isAvailable()).isFalse();
+
+        assertThat(readName(2)).isEqualTo("Iron Man");
+    }
+
+    // Should always write to the primary
+    @Test
+    public void shouldWriteToPrimary() throws Exception {
+        setLag(0);
+
+        mockMvc.
+            perform(post("/api/v1/employees").content("{\"name\": \"Pepper Potts\", \"jobTitle\": \"Intern\", \"managerId\": 2}").contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isCreated());
+
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM EMPLOYEE WHERE NAME = 'Pepper Potts'", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM EMPLOYEE WHERE NAME = 'Pepper Potts'", Integer.class)).isEqualTo(0);
+    }
+
+    private String readName(int id) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        return transactionTemplate.execute(status -> employeeRepository.findSummaryById(id).getName());
+    }
+
+    private void setLag(int seconds) {
+        replica.update("UPDATE REPLICA_LAG SET SECONDS = ?", seconds);
+        replicaMonitor.check();
+    }
+}
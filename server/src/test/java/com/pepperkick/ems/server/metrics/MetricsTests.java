@@ -0,0 +1,128 @@
+package com.pepperkick.ems.server.metrics;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, classes = { Application.class, H2Configuration.class }, properties = {
+        "ems.sql-profiler.enabled=true",
+        "ems.sql-profiler.debug=true"
+})
+public class MetricsTests extends AbstractTransactionalTestNGSpringContextTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Should expose route latency, service timers, query counts, JDBC time and cache lookups in prometheus format
+    @Test
+    public void shouldExposePrometheusMetrics() throws Exception {
+        mockMvc.
+            perform(get("/api/v1/employees").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+
+        mockMvc.
+            perform(get("/api/v1/designations").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+
+        String metrics = mockMvc.
+            perform(get("/actuator/prometheus")).
+            andExpect(status().isOk()).
+            andReturn().getResponse().getContentAsString();
+
+        assertThat(metrics).contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/api/v1/employees\"");
+        assertThat(metrics).contains("ems_service_seconds_count{class=\"com.pepperkick.ems.server.service.EmployeeService\",exception=\"none\",method=\"findAll\",}");
+        assertThat(metrics).contains("ems_service_seconds_count{class=\"com.pepperkick.ems.server.service.DesignationService\",exception=\"none\",method=\"findAllByOrderByLevelAsc\",}");
+        assertThat(metrics).contains("ems_http_queries_count{method=\"GET\",uri=\"/api/v1/employees\",}");
+        assertThat(metrics).contains("ems_http_jdbc_seconds_count{method=\"GET\",uri=\"/api/v1/employees\",}");
+        assertThat(metrics).contains("ems_cache_gets_total{cache=\"designations\",result=\"hit\",}");
+    }
+
+    // Should profile the SQL statements, JDBC time and entity loads made while profiling is started
+    @Test
+    public void shouldProfileStatements() {
+        SqlStatementInspector inspector = new SqlStatementInspector();
+        SqlSessionEventListener listener = new SqlSessionEventListener();
+        SqlEntityInterceptor interceptor = new SqlEntityInterceptor();
+
+        inspector.inspect("SELECT 1");
+        SqlProfiler.start();
+        inspector.inspect("SELECT 1");
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        inspector.inspect("SELECT 2");
+        inspector.inspect("SELECT 1");
+        interceptor.onLoad(new Object(), 1, null, null, null);
+
+        SqlProfile profile = SqlProfiler.stop();
+        assertThat(profile.getStatements()).isEqualTo(3);
+        assertThat(profile.getEntityLoads()).isEqualTo(1);
+        assertThat(profile.getJdbcNanos()).isGreaterThan(0);
+        assertThat(profile.getQueries()).extracting(SqlProfile.Query::getSql).containsExactly("SELECT 1", "SELECT 2");
+        assertThat(profile.getQueries()).extracting(SqlProfile.Query::getCount).containsExactly(2, 1);
+        assertThat(SqlProfiler.stop().getStatements()).isEqualTo(0);
+    }
+
+    // Should return the SQL profile summary in the response headers in debug mode
+    @Test
+    public void shouldReturnProfileHeadersInDebugMode() throws Exception {
+        SqlStatementInspector inspector = new SqlStatementInspector();
+        SqlProfilerFilter filter = new SqlProfilerFilter(new SimpleMeterRegistry(), true, true, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/employees"), response, (req, res) -> {
+            inspector.inspect("SELECT 1");
+            inspector.inspect("SELECT 2");
+            res.getWriter().write("[]");
+        });
+
+        assertThat(response.getHeader(SqlProfilerFilter.STATEMENTS_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(SqlProfilerFilter.ENTITY_LOADS_HEADER)).isEqualTo("0");
+        assertThat(response.getHeader(SqlProfilerFilter.JDBC_TIME_HEADER)).isNotNull();
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    // GET /employees/export
+    // Should write the export to the client as it is streamed instead of buffering it for the profile headers in debug mode
+    @Test
+    public void shouldNotBufferExportInDebugMode() throws Exception {
+        MvcResult result = mockMvc.
+            perform(get("/api/v1/employees/export")).
+            andExpect(request().asyncStarted()).
+            andReturn();
+
+        // Every line is written once the export finished, before the async dispatch would copy a buffered body
+        result.getAsyncResult();
+        assertThat(result.getResponse().getContentAsString().split("\n")).hasSize(10);
+
+        mockMvc.
+            perform(asyncDispatch(result)).
+            andExpect(status().isOk()).
+            andExpect(header().doesNotExist(SqlProfilerFilter.STATEMENTS_HEADER));
+    }
+
+    // Should still return the profile headers of regular routes in debug mode
+    @Test
+    public void shouldReturnProfileHeadersOfRoutesInDebugMode() throws Exception {
+        mockMvc.
+            perform(get("/api/v1/employees").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(header().exists(SqlProfilerFilter.STATEMENTS_HEADER));
+    }
+}
@@ -0,0 +1,52 @@
+package com.pepperkick.ems.server.repository;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the transactions with a single connection, IDs must be allocated without taking a second one from it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, classes = { Application.class, H2Configuration.class }, properties = {
+        "spring.datasource.url=jdbc:h2:mem:generator",
+        "spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+public class IdGeneratorTests extends AbstractTestNGSpringContextTests {
+    @Autowired
+    private IdGeneratorRepository idGeneratorRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Should allocate a block of IDs for a new employee while the transaction holds the only connection
+    @Test
+    public void shouldAllocateIdsWithSingleConnection() {
+        Employee employee = new TransactionTemplate(transactionManager).execute(status ->
+            employeeService.create("Hawkeye", "Developer", 4, true)
+        );
+
+        // Seeded employees were added without the generator, which was moved past them
+        assertThat(employee.getId()).isGreaterThan(10);
+    }
+
+    // Should hand out blocks that follow each other without overlapping
+    @Test
+    public void shouldAllocateSeparateBlocks() {
+        long first = idGeneratorRepository.allocate(IdGeneratorRepository.DESIGNATION, 50);
+        long second = idGeneratorRepository.allocate(IdGeneratorRepository.DESIGNATION, 50);
+
+        assertThat(first).isGreaterThan(7);
+        assertThat(second).isEqualTo(first + 50);
+    }
+}
@@ -0,0 +1,112 @@
+package com.pepperkick.ems.server.retry;
+
+import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.requestbody.EmployeeRequestPostBody;
+import com.pepperkick.ems.server.requestbody.EmployeeRequestPutBody;
+import com.pepperkick.ems.server.service.EmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Changes are committed to it's own in memory database by two transactions on different threads
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, classes = { Application.class, H2Configuration.class }, properties = {
+        "spring.datasource.url=jdbc:h2:mem:conflict"
+})
+public class ConcurrentUpdateTests extends AbstractTestNGSpringContextTests {
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Should reject the change of a subordinate that was loaded before it's manager was moved
+    // Otherwise the old hierarchy path of the subordinate is written back
+    @Test
+    public void shouldRejectStaleSubordinateAfterManagerIsMoved() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> {
+            // Load the subordinate along with it's manager
+            Employee employee = employeeService.findById(10);
+
+            // Move the manager under another manager in a transaction that commits first
+            CompletableFuture.runAsync(() -> transactionTemplate.execute(other -> {
+                Employee manager = employeeService.findById(3);
+                return employeeService.update(manager, null, null, 2);
+            })).join();
+
+            return employeeService.update(employee, "Natasha Romanoff", null, -1);
+        })).isInstanceOf(ConcurrencyFailureException.class);
+
+        assertThat(employeeRepository.findPathById(10)).isEqualTo("/1/2/3/10/");
+    }
+
+    // Should create the employee under the new path of it's manager when the manager is being moved by another transaction
+    // Otherwise the employee keeps the old path, which the move did not see before it was committed
+    @Test
+    public void shouldCreateEmployeeUnderManagerBeingMoved() throws Exception {
+        EmployeeRequestPostBody body = new EmployeeRequestPostBody();
+        body.setName("Hawkeye");
+        body.setJobTitle("Developer");
+        body.setManagerId(3);
+
+        CompletableFuture<Void> move = whileMoving(3);
+
+        int id = employeeService.create(body).getId();
+        move.join();
+
+        assertThat(employeeRepository.findPathById(id)).isEqualTo(employeeRepository.findPathById(3) + id + "/");
+    }
+
+    // Should move the employee under the new path of it's new manager when the manager is being moved by another transaction
+    @Test
+    public void shouldMoveEmployeeUnderManagerBeingMoved() throws Exception {
+        EmployeeRequestPutBody body = new EmployeeRequestPutBody();
+        body.setManagerId(8);
+
+        CompletableFuture<Void> move = whileMoving(8);
+
+        employeeService.update(6, body);
+        move.join();
+
+        assertThat(employeeRepository.findPathById(6)).isEqualTo(employeeRepository.findPathById(8) + "6/");
+    }
+
+    // Move the lead under another manager in a transaction that is held open for a while before it commits
+    private CompletableFuture<Void> whileMoving(int id) throws InterruptedException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch moved = new CountDownLatch(1);
+
+        CompletableFuture<Void> move = CompletableFuture.runAsync(() -> transactionTemplate.execute(status -> {
+            Employee employee = employeeService.findById(id);
+            employeeService.update(employee, null, null, employee.getManager().getId() == 4 ? 2 : 4);
+            moved.countDown();
+
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+
+        moved.await();
+        return move;
+    }
+}
@@ -0,0 +1,87 @@
+package com.pepperkick.ems.server.retry;
+
+import com.pepperkick.ems.server.exception.ConflictException;
+import com.pepperkick.ems.server.util.MessageHelper;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RetryOnConflictTests {
+    private RetryOnConflictAspect aspect;
+
+    @BeforeMethod
+    public void init() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+
+        MessageHelper messageHelper = new MessageHelper();
+        messageHelper.setMessageSource(messageSource);
+
+        aspect = new RetryOnConflictAspect(messageHelper, 3, 0);
+    }
+
+    // Should run the method again until it no longer conflicts
+    @Test
+    public void shouldRetryOnConflict() {
+        ConflictingTask task = new ConflictingTask(2, new ObjectOptimisticLockingFailureException(Object.class, 1));
+
+        assertThat(proxy(task).run()).isEqualTo(3);
+        assertThat(task.calls).isEqualTo(3);
+    }
+
+    // Should fail with a conflict once every attempt conflicted
+    @Test
+    public void shouldFailWithConflictAfterMaxAttempts() {
+        ConflictingTask task = new ConflictingTask(5, new ObjectOptimisticLockingFailureException(Object.class, 1));
+
+        assertThatThrownBy(() -> proxy(task).run()).isInstanceOf(ConflictException.class);
+        assertThat(task.calls).isEqualTo(3);
+    }
+
+    // Should fail with a conflict without retrying when a constraint is violated
+    @Test
+    public void shouldFailWithConflictOnConstraintViolation() {
+        ConflictingTask task = new ConflictingTask(5, new DataIntegrityViolationException("DIRECTOR"));
+
+        assertThatThrownBy(() -> proxy(task).run()).isInstanceOf(ConflictException.class);
+        assertThat(task.calls).isEqualTo(1);
+    }
+
+    private ConflictingTask proxy(ConflictingTask task) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(task);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+
+        return factory.getProxy();
+    }
+
+    public static class ConflictingTask {
+        private final int failures;
+        private final RuntimeException exception;
+        private int calls;
+
+        public ConflictingTask() {
+            this(0, null);
+        }
+
+        ConflictingTask(int failures, RuntimeException exception) {
+            this.failures = failures;
+            this.exception = exception;
+        }
+
+        @RetryOnConflict
+        public int run() {
+            calls++;
+            if (calls <= failures)
+                throw exception;
+
+            return calls;
+        }
+    }
+}
@@ -46,6 +46,22 @@ public class DesignationRouteTests extends AbstractTransactionalTestNGSpringCont
             andExpect(jsonPath("$").isArray());
     }
 
+    // Should answer with response code 304 when the ETag is current
+    @Test
+    public void shouldGetDesignationsNotModified() throws Exception {
+        String etag = mockMvc.
+            perform(get(path).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.
+            perform(get(path).header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isNotModified());
+        mockMvc.
+            perform(get(path).header("If-None-Match", "\"1\"").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+    }
+
     // Should POST with response code 201 and create a new designations
     @Test
     public void shouldAddDesignation() throws Exception {
@@ -2,17 +2,33 @@ package com.pepperkick.ems.server.route;
 
 import com.pepperkick.ems.server.Application;
 import com.pepperkick.ems.server.config.H2Configuration;
+import com.pepperkick.ems.server.entity.Employee;
+import com.pepperkick.ems.server.metrics.SqlProfile;
+import com.pepperkick.ems.server.metrics.SqlProfiler;
+import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.service.EmployeeService;
 import com.pepperkick.ems.server.util.MessageHelper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.testng.annotations.Test;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +45,15 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
     @Autowired
     private MessageHelper messageHelper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
     private String path = "/api/v1/employees";
 
     // Check if route is running
@@ -58,6 +83,211 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             andExpect(jsonPath("$").isArray());
     }
 
+    // Should successfully get first page of employees ordered by designation level and name
+    @Test
+    public void shouldGetFirstPageOfEmployees() throws Exception {
+        mockMvc.
+            perform(get(path).param("limit", "3").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(3)).
+            andExpect(jsonPath("$[0].id").value(1)).
+            andExpect(jsonPath("$[1].id").value(4)).
+            andExpect(jsonPath("$[2].id").value(2));
+    }
+
+    // Should successfully get the page of employees after the cursor of the previous page
+    @Test
+    public void shouldGetPageOfEmployeesAfterCursor() throws Exception {
+        String cursor = mockMvc.
+            perform(get(path).param("limit", "3").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$[2].id").value(2)).
+            andExpect(header().exists(EmployeeRoute.NEXT_CURSOR_HEADER)).
+            andReturn().getResponse().getHeader(EmployeeRoute.NEXT_CURSOR_HEADER);
+
+        mockMvc.
+            perform(get(path).param("after", cursor).param("limit", "3").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(3)).
+            andExpect(jsonPath("$[0].id").value(8)).
+            andExpect(jsonPath("$[1].id").value(3)).
+            andExpect(jsonPath("$[2].id").value(10));
+    }
+
+    // Should not return a cursor after the last page
+    @Test
+    public void shouldNotReturnCursorAfterLastPage() throws Exception {
+        mockMvc.
+            perform(get(path).param("limit", "20").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(10)).
+            andExpect(header().doesNotExist(EmployeeRoute.NEXT_CURSOR_HEADER));
+    }
+
+    // Should continue the list after the cursor when the last employee of the previous page was deleted since
+    @Test
+    public void shouldGetPageOfEmployeesAfterDeletedEmployee() throws Exception {
+        String cursor = findNextCursor(3);
+        employeeService.deleteById(2);
+
+        mockMvc.
+            perform(get(path).param("after", cursor).param("limit", "3").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$[0].id").value(8)).
+            andExpect(jsonPath("$[1].id").value(3)).
+            andExpect(jsonPath("$[2].id").value(10));
+    }
+
+    // Should continue the list after the place of the cursor when the last employee of the previous page was renamed since
+    @Test
+    public void shouldGetPageOfEmployeesAfterRenamedEmployee() throws Exception {
+        String cursor = findNextCursor(3);
+        employeeService.update(employeeService.findById(2), "Aaron", null, -1);
+
+        // Renamed employee comes before the cursor now and is not repeated
+        mockMvc.
+            perform(get(path).param("after", cursor).param("limit", "3").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$[0].id").value(8)).
+            andExpect(jsonPath("$[1].id").value(3)).
+            andExpect(jsonPath("$[2].id").value(10));
+    }
+
+    // Should order names regardless of their case, the same as the database and the org snapshot do
+    @Test
+    public void shouldGetEmployeesOrderedRegardlessOfCase() throws Exception {
+        employeeService.create("bucky Barnes", "Developer", 8, true);
+
+        mockMvc.
+            perform(get(path).param("limit", "8").param("fields", "name").param("expand", "").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$[5].name").value("Black Widow")).
+            andExpect(jsonPath("$[6].name").value("bucky Barnes")).
+            andExpect(jsonPath("$[7].name").value("Falcon"));
+    }
+
+    // Should get employee list and pages from the org snapshot without any SQL statement
+    @Test
+    public void shouldGetEmployeesWithoutStatements() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Load the snapshot if it is not loaded yet
+        String cursor = findNextCursor(3);
+
+        statistics.clear();
+        mockMvc.
+            perform(get(path).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(10));
+        mockMvc.
+            perform(get(path).param("after", cursor).param("limit", "5").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(5)).
+            andExpect(jsonPath("$[0].id").value(8));
+        mockMvc.
+            perform(get(path + "/2/reports").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+        mockMvc.
+            perform(get(path + "/10/chain").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    // Should get employee list and pages with a constant number of SQL statements after changing employees in the same transaction
+    @Test
+    public void shouldGetEmployeesWithConstantNumberOfStatements() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String cursor = findNextCursor(3);
+        changeEmployee();
+
+        statistics.clear();
+        mockMvc.
+            perform(get(path).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(10));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.
+            perform(get(path).param("limit", "5").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        mockMvc.
+            perform(get(path).param("after", cursor).param("limit", "5").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // GET /employees/export
+    // Should stream every employee as a flat record on it's own line
+    @Test
+    public void shouldExportEmployees() throws Exception {
+        MvcResult result = mockMvc.
+            perform(get(path + "/export")).
+            andExpect(request().asyncStarted()).
+            andReturn();
+
+        String[] lines = mockMvc.
+            perform(asyncDispatch(result)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(content().contentTypeCompatibleWith("application/x-ndjson")).
+            andExpect(header().doesNotExist("ETag")).
+            andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(10);
+
+        JSONObject director = new JSONObject(lines[0]);
+        assertThat(director.getInt("id")).isEqualTo(1);
+        assertThat(director.getString("jobTitle")).isEqualTo("Director");
+        assertThat(director.isNull("managerId")).isTrue();
+
+        JSONObject intern = new JSONObject(lines[9]);
+        assertThat(intern.getString("name")).isEqualTo("Spider Man");
+        assertThat(intern.getInt("managerId")).isEqualTo(2);
+    }
+
+    // Should not hold a transaction while the export writes each page
+    @Test
+    public void shouldExportPagesOutsideOfTransaction() {
+        List<Boolean> transactions = new ArrayList<>();
+
+        employeeService.forEachPage(page -> transactions.add(TransactionSynchronizationManager.isActualTransactionActive()));
+
+        assertThat(transactions).containsOnly(false);
+    }
+
+    // Should fail with response code 400 due to invalid limit
+    @Test
+    public void shouldFailToGetEmployeesDueToInvalidLimit() throws Exception {
+        mockMvc.
+            perform(get(path).param("limit", "0").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.invalid.limit", 0, 1000)
+            ));
+    }
+
+    // Should fail with response code 400 due to a cursor that was not returned by the list
+    @Test
+    public void shouldFailToGetEmployeesDueToInvalidCursor() throws Exception {
+        mockMvc.
+            perform(get(path).param("after", "100").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.invalid.after", 100)
+            ));
+    }
+
     // Should fail with response code 404 due to empty employee list
 //    @Test
 //    public void shouldFailToGetEmployees() throws Exception {
@@ -84,6 +314,126 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             andExpect(jsonPath("$.name").value("Thor"));
     }
 
+    // Should successfully receive employee's manager, colleagues and subordinates in designation level and name order
+    @Test
+    public void shouldGetEmployeeWithRelations() throws Exception {
+        mockMvc.
+            perform(get(path + "/2").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.jobTitle").value("Manager")).
+            andExpect(jsonPath("$.manager.id").value(1)).
+            andExpect(jsonPath("$.manager.subordinates").doesNotExist()).
+            andExpect(jsonPath("$.colleagues.length()").value(2)).
+            andExpect(jsonPath("$.colleagues[0].id").value(4)).
+            andExpect(jsonPath("$.colleagues[1].id").value(3)).
+            andExpect(jsonPath("$.subordinates.length()").value(3)).
+            andExpect(jsonPath("$.subordinates[0].id").value(6)).
+            andExpect(jsonPath("$.subordinates[1].id").value(5)).
+            andExpect(jsonPath("$.subordinates[2].id").value(9));
+    }
+
+    // Should only receive the requested fields of the employee and it's related employees
+    @Test
+    public void shouldGetEmployeeWithRequestedFields() throws Exception {
+        mockMvc.
+            perform(get(path + "/2").param("fields", "id,name").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.id").value(2)).
+            andExpect(jsonPath("$.name").value("Iron Man")).
+            andExpect(jsonPath("$.jobTitle").doesNotExist()).
+            andExpect(jsonPath("$.manager.id").value(1)).
+            andExpect(jsonPath("$.manager.jobTitle").doesNotExist()).
+            andExpect(jsonPath("$.subordinates[0].jobTitle").doesNotExist());
+    }
+
+    // Should only receive the requested related employees
+    @Test
+    public void shouldGetEmployeeWithRequestedRelations() throws Exception {
+        mockMvc.
+            perform(get(path + "/2").param("expand", "manager").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.jobTitle").value("Manager")).
+            andExpect(jsonPath("$.manager.id").value(1)).
+            andExpect(jsonPath("$.colleagues").doesNotExist()).
+            andExpect(jsonPath("$.subordinates").doesNotExist());
+    }
+
+    // Should not query related employees when none are requested
+    @Test
+    public void shouldGetEmployeesWithoutRelations() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        changeEmployee();
+
+        statistics.clear();
+        mockMvc.
+            perform(get(path).param("limit", "5").param("expand", "").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(5)).
+            andExpect(jsonPath("$[1].manager").doesNotExist()).
+            andExpect(jsonPath("$[1].subordinates").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // Should fail with response code 400 due to unknown field
+    @Test
+    public void shouldFailToGetEmployeeDueToInvalidFields() throws Exception {
+        mockMvc.
+            perform(get(path + "/2").param("fields", "id,salary").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.invalid.fields", "id,salary")
+            ));
+    }
+
+    // Should fail with response code 400 due to unknown related employees
+    @Test
+    public void shouldFailToGetEmployeeDueToInvalidExpand() throws Exception {
+        mockMvc.
+            perform(get(path + "/2").param("expand", "designation").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.invalid.expand", "designation")
+            ));
+    }
+
+    // Should answer with response code 304 without any query when the ETag is current
+    @Test
+    public void shouldGetEmployeeNotModified() throws Exception {
+        String etag = mockMvc.
+            perform(get(path + "/2").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(header().exists("ETag")).
+            andReturn().getResponse().getHeader("ETag");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.
+            perform(get(path + "/2").header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isNotModified()).
+            andExpect(header().string("ETag", etag)).
+            andExpect(content().string(""));
+        mockMvc.
+            perform(get(path).header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+    }
+
+    // Should successfully receive employee's information with response code 200 when the ETag is outdated
+    @Test
+    public void shouldGetEmployeeWithOutdatedETag() throws Exception {
+        mockMvc.
+            perform(get(path + "/2").header("If-None-Match", "\"1\"").accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.id").value(2));
+    }
+
     // Should fail with response code 400 due to negative id param
     @Test
     public void shouldFailToGetEmployeeDueToInvalidID() throws Exception {
@@ -117,6 +467,125 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             ));
     }
 
+    // GET /employees/${id}/reports
+    // Should successfully get all employees under the manager ordered by designation level and name
+    @Test
+    public void shouldGetReportsOfManager() throws Exception {
+        mockMvc.
+            perform(get(path + "/2/reports").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(3)).
+            andExpect(jsonPath("$[0].id").value(6)).
+            andExpect(jsonPath("$[1].id").value(5)).
+            andExpect(jsonPath("$[2].id").value(9));
+    }
+
+    // Should successfully get every employee under the director
+    @Test
+    public void shouldGetReportsOfDirector() throws Exception {
+        mockMvc.
+            perform(get(path + "/1/reports").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(9));
+    }
+
+    // Should fail with response code 404 due to employee not found with id
+    @Test
+    public void shouldFailToGetReportsDueToNotFound() throws Exception {
+        mockMvc.
+            perform(get(path + "/100/reports").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isNotFound());
+    }
+
+    // GET /employees/${id}/chain
+    // Should successfully get the chain of command starting from the direct manager
+    @Test
+    public void shouldGetChainOfCommand() throws Exception {
+        mockMvc.
+            perform(get(path + "/10/chain").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(2)).
+            andExpect(jsonPath("$[0].id").value(3)).
+            andExpect(jsonPath("$[1].id").value(1));
+    }
+
+    // Should successfully get empty chain of command for director
+    @Test
+    public void shouldGetEmptyChainOfCommandOfDirector() throws Exception {
+        mockMvc.
+            perform(get(path + "/1/chain").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(0));
+    }
+
+    // Should update reports and chain of command when the manager is changed
+    @Test
+    public void shouldMoveReportsWhenManagerIsUpdated() throws Exception {
+        JSONObject body = new JSONObject();
+        body.put("name", "Ant Man");
+        body.put("managerId", 2);
+
+        mockMvc.
+            perform(put(path + "/8").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+
+        mockMvc.
+            perform(get(path + "/2/reports").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(jsonPath("$.length()").value(4)).
+            andExpect(jsonPath("$[0].id").value(8));
+
+        mockMvc.
+            perform(get(path + "/8/chain").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(jsonPath("$[0].id").value(2)).
+            andExpect(jsonPath("$[1].id").value(1));
+    }
+
+    // Should update chain of command of subordinates when their manager is deleted
+    @Test
+    public void shouldMoveReportsWhenManagerIsDeleted() throws Exception {
+        mockMvc.
+            perform(delete(path + "/2")).
+            andExpect(status().isNoContent());
+
+        mockMvc.
+            perform(get(path + "/1/reports").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(jsonPath("$.length()").value(8));
+
+        mockMvc.
+            perform(get(path + "/5/chain").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(jsonPath("$.length()").value(1)).
+            andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    // Should move subordinates under the new employee when an employee is replaced
+    @Test
+    public void shouldMoveReportsWhenManagerIsReplaced() throws Exception {
+        JSONObject body = new JSONObject();
+        body.put("name", "Black Panther");
+        body.put("jobTitle", "Manager");
+        body.put("replace", true);
+
+        mockMvc.
+            perform(put(path + "/2").content(body.toString()).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isCreated());
+
+        mockMvc.
+            perform(get(path + "/5/chain").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(jsonPath("$.length()").value(2)).
+            andExpect(jsonPath("$[0].name").value("Black Panther")).
+            andExpect(jsonPath("$[1].id").value(1));
+    }
+
     // POST /employees
     // Should POST with response code 201 and new employee
     @Test
@@ -232,6 +701,108 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             ));
     }
 
+    // POST /employees/bulk
+    // Should POST with response code 201 and IDs of new employees, saving managers before their subordinates
+    @Test
+    public void shouldPostNewEmployeesInBulk() throws Exception {
+        JSONArray employees = new JSONArray();
+        employees.put(createBulkEmployee("wong", "Wong", "Developer", null).put("managerRef", "strange"));
+        employees.put(createBulkEmployee("strange", "DrStrange", "Lead", null).put("managerRef", "panther"));
+        employees.put(createBulkEmployee("panther", "Black Panther", "Manager", 1));
+
+        JSONObject body = new JSONObject();
+        body.put("employees", employees);
+
+        String response = mockMvc.
+            perform(post(path + "/bulk").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isCreated()).
+            andExpect(jsonPath("$.length()").value(3)).
+            andExpect(jsonPath("$[0].ref").value("wong")).
+            andReturn().getResponse().getContentAsString();
+
+        int id = new JSONArray(response).getJSONObject(0).getInt("id");
+
+        mockMvc.
+            perform(get(path + "/" + id + "/chain").accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isOk()).
+            andExpect(jsonPath("$.length()").value(3)).
+            andExpect(jsonPath("$[0].name").value("DrStrange")).
+            andExpect(jsonPath("$[1].name").value("Black Panther")).
+            andExpect(jsonPath("$[2].id").value(1));
+    }
+
+    // Should POST in bulk writing the new employees and their hierarchy paths as one batch each
+    @Test
+    public void shouldPostNewEmployeesInBulkAsBatches() throws Exception {
+        JSONArray employees = new JSONArray();
+        employees.put(createBulkEmployee("strange", "DrStrange", "Lead", null).put("managerRef", "panther"));
+        employees.put(createBulkEmployee("panther", "Black Panther", "Manager", 1));
+        employees.put(createBulkEmployee("wong", "Wong", "Developer", null).put("managerRef", "strange"));
+
+        JSONObject body = new JSONObject();
+        body.put("employees", employees);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        String response = mockMvc.
+            perform(post(path + "/bulk").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isCreated()).
+            andReturn().getResponse().getContentAsString();
+
+        // New employees get IDs after the ones added without the generator
+        assertThat(new JSONArray(response).getJSONObject(0).getInt("id")).isGreaterThan(10);
+
+        // Nothing is written until the transaction is flushed
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(0);
+
+        SqlProfiler.start();
+        employeeRepository.flush();
+        SqlProfile profile = SqlProfiler.stop();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        assertThat(profile.getStatements()).isEqualTo(2);
+    }
+
+    // Should fail to POST with response code 400 due to manager reference not present in the request
+    @Test
+    public void shouldFailToPostNewEmployeesInBulkDueToUnknownManagerRef() throws Exception {
+        JSONArray employees = new JSONArray();
+        employees.put(createBulkEmployee("strange", "DrStrange", "Lead", null).put("managerRef", "panther"));
+
+        JSONObject body = new JSONObject();
+        body.put("employees", employees);
+
+        mockMvc.
+            perform(post(path + "/bulk").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.bulk.notfound.manager_ref", "panther")
+            ));
+    }
+
+    // Should fail to POST with response code 400 due to an employee having higher level designation than it's manager from the request
+    @Test
+    public void shouldFailToPostNewEmployeesInBulkDueToHigherDesignation() throws Exception {
+        JSONArray employees = new JSONArray();
+        employees.put(createBulkEmployee("strange", "DrStrange", "Lead", 1));
+        employees.put(createBulkEmployee("panther", "Black Panther", "Manager", null).put("managerRef", "strange"));
+
+        JSONObject body = new JSONObject();
+        body.put("employees", employees);
+
+        mockMvc.
+            perform(post(path + "/bulk").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.restriction.manager.cannot_have_lower_designation", "Manager", "Lead")
+            ));
+    }
+
     // Should fail to POST with response code 400 due to large employee's name
     @Test
     public void shouldFailToPostNewEmployeeDueToLargeName() throws Exception {
@@ -273,6 +844,19 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             andExpect(jsonPath("$.manager.id").value(1));
     }
 
+    // Should move the subordinates of a deleted employee with a single statement instead of updating each subordinate
+    @Test
+    public void shouldDeleteEmployeeWithoutUpdatingEachSubordinate() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.
+            perform(delete(path + "/2")).
+            andExpect(status().isNoContent());
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(0);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(1);
+    }
+
     // Should fail to DELETE with response code 404 due to no employee found with given id
     @Test
     public void shouldFailToDeleteEmployeeDueToIdNotFound() throws Exception {
@@ -333,6 +917,23 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             andExpect(jsonPath("$.name").value(body.get("name")));
     }
 
+    // Should keep the level of the employee in sync with it's designation
+    @Test
+    public void shouldKeepLevelInSyncWithDesignation() throws Exception {
+        assertThat(employeeRepository.countStaleLevels()).isEqualTo(0);
+        assertThat(employeeRepository.findById(10).getLevel()).isEqualTo(4);
+
+        JSONObject body = new JSONObject();
+        body.put("name", "Black Widow");
+        body.put("jobTitle", "Intern");
+
+        mockMvc.
+            perform(put(path + "/10").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+
+        assertThat(employeeRepository.findById(10).getLevel()).isEqualTo(5);
+    }
+
     // Should fail to PUT with response code 400 due to restriction of director having no manager
     @Test
     public void shouldFailToPutAndUpdateManagerOfDirector() throws Exception {
@@ -350,6 +951,33 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             ));
     }
 
+    // Should fail to PUT with response code 400 due to restriction of single director
+    @Test
+    public void shouldFailToPutAndUpdateEmployeeToDirector() throws Exception {
+        JSONObject body = new JSONObject();
+        body.put("name", "Iron Man");
+        body.put("jobTitle", "Director");
+
+        mockMvc.
+            perform(put(path + "/2").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest()).
+            andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.restriction.director.single")
+            ));
+    }
+
+    // Should reject a second director in the database even when the service checks are skipped
+    @Test
+    public void shouldRejectSecondDirectorInDatabase() {
+        Employee employee = new Employee();
+        employee.setName("Nick Fury");
+        employee.setDesignation(employeeRepository.findById(1).getDesignation());
+        employee.setDirector(true);
+
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(employee)).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
     // Should fail to PUT with response code 200 due to negative id
     @Test
     public void shouldFailToPutAndUpdateDueToInvalidID() throws Exception {
@@ -443,6 +1071,22 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             ));
     }
 
+    // Should fail to PUT with response code 400 due to updated employee having lower designation than it's subordinates
+    @Test
+    public void shouldFailToPutAndUpdateEmployeeDueToLowerDesignation() throws Exception {
+        JSONObject body = new JSONObject();
+        body.put("name", "Iron Man");
+        body.put("jobTitle", "Intern");
+
+        mockMvc.
+            perform(put(path + "/2").content(body.toString()).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)).
+            andDo(print()).
+            andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value(
+                messageHelper.getMessage("error.route.employee.restriction.subordinate.cannot_have_higher_designation", body.get("jobTitle"))
+            ));
+    }
+
     // Should fail to PATCH with response code 405
     @Test
     public void shouldFailToPatch() throws Exception {
@@ -451,4 +1095,34 @@ public class EmployeeRouteTests extends AbstractTransactionalTestNGSpringContext
             andDo(print()).
             andExpect(status().isMethodNotAllowed());
     }
+
+    private JSONObject createBulkEmployee(String ref, String name, String jobTitle, Integer managerId) throws Exception {
+        JSONObject employee = new JSONObject();
+        employee.put("ref", ref);
+        employee.put("name", name);
+        employee.put("jobTitle", jobTitle);
+        if (managerId != null)
+            employee.put("managerId", managerId);
+
+        return employee;
+    }
+
+    // Change an employee in the test transaction so the following reads go to the database instead of the org snapshot
+    // Get the cursor returned after the first page of the given size
+    private String findNextCursor(int limit) throws Exception {
+        return mockMvc.
+            perform(get(path).param("limit", String.valueOf(limit)).accept(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk()).
+            andReturn().getResponse().getHeader(EmployeeRoute.NEXT_CURSOR_HEADER);
+    }
+
+    private void changeEmployee() throws Exception {
+        JSONObject body = new JSONObject();
+        body.put("name", "Falcon");
+
+        mockMvc.
+            perform(put(path + "/7").content(String.valueOf(body)).accept(MediaType.APPLICATION_JSON).contentType(MediaType.APPLICATION_JSON)).
+            andExpect(status().isOk());
+        employeeRepository.flush();
+    }
 }
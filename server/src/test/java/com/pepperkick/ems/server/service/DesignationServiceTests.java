@@ -1,10 +1,13 @@
 package com.pepperkick.ems.server.service;
 
 import com.pepperkick.ems.server.Application;
+import com.pepperkick.ems.server.cache.OrgCache;
 import com.pepperkick.ems.server.config.H2Configuration;
 import com.pepperkick.ems.server.entity.Designation;
+import com.pepperkick.ems.server.exception.BadRequestException;
 import com.pepperkick.ems.server.repository.DesignationRepository;
 import com.pepperkick.ems.server.repository.EmployeeRepository;
+import com.pepperkick.ems.server.repository.IdGeneratorRepository;
 import com.pepperkick.ems.server.util.MessageHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,14 +16,17 @@ import org.testng.annotations.Test;
 
 import java.util.*;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest(classes = {Application.class, H2Configuration.class })
 public class DesignationServiceTests {
     private DesignationRepository designationRepository;
     private DesignationService designationService;
     private EmployeeRepository employeeRepository;
+    private IdGeneratorRepository idGeneratorRepository;
+    private OrgCache orgCache;
 
     @Autowired
     private MessageHelper messageHelper;
@@ -29,7 +35,9 @@ public class DesignationServiceTests {
     public void init() {
         designationRepository = mock(DesignationRepository.class);
         employeeRepository = mock(EmployeeRepository.class);
-        designationService = new DesignationService(designationRepository, employeeRepository, messageHelper);
+        idGeneratorRepository = mock(IdGeneratorRepository.class);
+        orgCache = mock(OrgCache.class);
+        designationService = new DesignationService(designationRepository, idGeneratorRepository, employeeRepository, orgCache, messageHelper);
 
         Designation dummyDesignation = new Designation();
         dummyDesignation.setId(1);
@@ -59,4 +67,76 @@ public class DesignationServiceTests {
         float level = designationService.getNewDesignationLevel(designation);
         assert level == 1.5;
     }
+
+    @Test
+    public void shouldServeDesignationsFromCache() {
+        DesignationRepository repository = createRepository();
+        DesignationService service = new DesignationService(repository, idGeneratorRepository, employeeRepository, orgCache, messageHelper);
+
+        service.findByTitle("Manager", false, "error.route.designation.notfound");
+        service.findById(1);
+        service.getMainDesignation();
+        service.findAllByOrderByLevelAsc();
+
+        verify(repository, times(1)).findAllByOrderByLevelAsc();
+        assert service.getCacheMisses() == 1;
+        assert service.getCacheHits() == 3;
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnCreate() {
+        DesignationRepository repository = createRepository();
+        DesignationService service = new DesignationService(repository, idGeneratorRepository, employeeRepository, orgCache, messageHelper);
+
+        service.getMainDesignation();
+        service.create("Senior Manager", 1, false);
+        service.getMainDesignation();
+
+        verify(repository, times(2)).findAllByOrderByLevelAsc();
+        assert service.getCacheMisses() == 2;
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnDelete() {
+        DesignationRepository repository = createRepository();
+        DesignationService service = new DesignationService(repository, idGeneratorRepository, employeeRepository, orgCache, messageHelper);
+
+        service.deleteById(2);
+        service.getMainDesignation();
+
+        verify(repository).delete(any(Designation.class));
+        verify(repository, times(2)).findAllByOrderByLevelAsc();
+    }
+
+    // Should check the employees of the designation in the database, where changes of the current transaction are visible
+    @Test
+    public void shouldNotDeleteDesignationWithEmployees() {
+        DesignationRepository repository = createRepository();
+        EmployeeRepository employees = mock(EmployeeRepository.class);
+        DesignationService service = new DesignationService(repository, idGeneratorRepository, employees, orgCache, mock(MessageHelper.class));
+
+        when(employees.existsByDesignation(any(Designation.class))).thenReturn(true);
+
+        assertThatThrownBy(() -> service.deleteById(2)).isInstanceOf(BadRequestException.class);
+        verify(repository, never()).delete(any(Designation.class));
+    }
+
+    private DesignationRepository createRepository() {
+        DesignationRepository repository = mock(DesignationRepository.class);
+
+        Designation director = new Designation();
+        director.setId(1);
+        director.setLevel(1.0f);
+        director.setTitle("Director");
+
+        Designation manager = new Designation();
+        manager.setId(2);
+        manager.setLevel(2.0f);
+        manager.setTitle("Manager");
+
+        when(repository.findAll()).thenReturn(Arrays.asList(director, manager));
+        when(repository.findAllByOrderByLevelAsc()).thenReturn(Arrays.asList(director, manager));
+
+        return repository;
+    }
 }